@@ -0,0 +1,18 @@
+package com.laben.islands.benchmarks;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessFiles;
+
+/** Gives the benchmarks access to the game's files without starting an application. Files are read relative to the
+ * working directory, which the jmh task sets to the assets folder **/
+final class Headless {
+
+    private Headless() {
+    }
+
+    //Sets up libGDX's file access if nothing else has yet
+    static synchronized void initialize() {
+        if (Gdx.files == null)
+            Gdx.files = new HeadlessFiles();
+    }
+}
@@ -0,0 +1,52 @@
+package com.laben.islands.benchmarks;
+
+import com.laben.islands.Player;
+import com.laben.islands.items.Item;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/** Measures the inventory operations behind the inventory screen for bags holding a given number of distinct items,
+ * added in a random order **/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InventoryBenchmark {
+
+    @Param({"1", "4", "8", "16"})
+    public int inventorySize;
+
+    private Player player;
+    private List<Item> items;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Headless.initialize();
+        items = new ArrayList<>(Item.masterItemSet);
+        Collections.shuffle(items, new Random(inventorySize));
+        items = items.subList(0, Math.min(inventorySize, items.size()));
+        player = new Player();
+        for (Item item : items)
+            player.addItemToInventory(item, 2);
+    }
+
+    @Benchmark
+    public Set<Item> sortInventory() {
+        player.sortInventory();
+        return player.getInventoryInBag();
+    }
+
+    //Uses up the last of an item and picks it back up again, which moves it in and out of the bag
+    @Benchmark
+    public Set<Item> removeAndAddItem() {
+        Item item = items.get(next++ % items.size());
+        player.removeItemFromInventory(item, 2);
+        player.addItemToInventory(item, 2);
+        return player.getInventoryInBag();
+    }
+}
@@ -0,0 +1,51 @@
+package com.laben.islands.benchmarks;
+
+import com.laben.islands.Island;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/** Measures generating a complete island for a range of island sizes and region counts, on square islands and on
+ * islands four times as tall as they are wide. Every invocation uses the next seed so that the time is averaged over
+ * many different maps rather than a single one **/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IslandGenerationBenchmark {
+
+    @Param({"5", "10", "20", "50", "100"})
+    public int side;
+
+    //The region count is given as the average number of tiles per region, so it scales with the side
+    @Param({"10", "20", "40"})
+    public int tilesPerRegion;
+
+    @Param({"10", "80"})
+    public int level;
+
+    private static final int TALL_ASPECT = 4;
+
+    private int numRegions;
+    private int tallNumRegions;
+    private long seed;
+
+    @Setup
+    public void setUp() {
+        Headless.initialize();
+        numRegions = Math.max(1, side * side / tilesPerRegion);
+        tallNumRegions = Math.max(1, side * side * TALL_ASPECT / tilesPerRegion);
+    }
+
+    @Benchmark
+    public Island generate() {
+        return new Island(seed++, side, side, numRegions, level);
+    }
+
+    @Benchmark
+    public Island generateTall() {
+        return new Island(seed++, side, side * TALL_ASPECT, tallNumRegions, level);
+    }
+}
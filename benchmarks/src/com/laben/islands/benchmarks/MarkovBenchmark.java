@@ -0,0 +1,65 @@
+package com.laben.islands.benchmarks;
+
+import com.laben.islands.Markov;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/** Measures generating names from the region name Markov chain for several chain orders. Run with -prof gc to see the
+ * allocations per name **/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MarkovBenchmark {
+
+    private static final String REGION_NAMES_FILE = "Text_Databases/Region_Prefixes.txt";
+    private static final String COMPILED_REGION_NAMES_FILE = "Text_Databases/Region_Names.markov";
+    private static final int MAX_NAME_LENGTH = 10;
+
+    @Param({"1", "2", "3", "4"})
+    public int order;
+
+    private Markov markov;
+    private SplittableRandom random;
+
+    @Setup
+    public void setUp() {
+        Headless.initialize();
+        markov = new Markov(REGION_NAMES_FILE, order, MAX_NAME_LENGTH);
+        random = new SplittableRandom(order);
+    }
+
+    @Benchmark
+    public String nextValue() {
+        return markov.nextValue(random);
+    }
+
+    //The same as nextValue, reported in names per second
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public String namesPerSecond() {
+        return markov.nextValue(random);
+    }
+
+    //Reading the corpus and building the table, which happens the first time a chain is used
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Markov load() {
+        return new Markov(REGION_NAMES_FILE, order, MAX_NAME_LENGTH);
+    }
+
+    //Loading the compiled model the game uses instead, which was built at order 3 whatever the order parameter is
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Map<String, Markov> loadCompiled() {
+        return Markov.loadCompiled(COMPILED_REGION_NAMES_FILE, MAX_NAME_LENGTH);
+    }
+}
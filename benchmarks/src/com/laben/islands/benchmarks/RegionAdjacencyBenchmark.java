@@ -0,0 +1,53 @@
+package com.laben.islands.benchmarks;
+
+import com.laben.islands.RegionAdjacency;
+import com.laben.islands.VoronoiEngine;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/** Measures finding the neighbours of every region of a Voronoi map with an island's density of regions **/
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RegionAdjacencyBenchmark {
+
+    private static final int CELLS_PER_SITE = 20;
+
+    @Param({"20", "200", "1000"})
+    public int side;
+
+    private int[][] numMap;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(side);
+        int numSites = Math.max(1, side * side / CELLS_PER_SITE);
+        int[] siteX = new int[numSites];
+        int[] siteY = new int[numSites];
+        boolean[] used = new boolean[side * side];
+        for (int i = 0; i < numSites; i++) {
+            int cell;
+            do {
+                cell = random.nextInt(side * side);
+            } while (used[cell]);
+            used[cell] = true;
+            siteX[i] = cell / side;
+            siteY[i] = cell % side;
+        }
+        int[] labels = new int[side * side];
+        VoronoiEngine.JUMP_FLOOD.label(side, side, siteX, siteY, labels, random);
+        numMap = new int[side][side];
+        for (int x = 0; x < side; x++)
+            System.arraycopy(labels, x * side, numMap[x], 0, side);
+    }
+
+    @Benchmark
+    public RegionAdjacency build() {
+        return new RegionAdjacency(numMap);
+    }
+}
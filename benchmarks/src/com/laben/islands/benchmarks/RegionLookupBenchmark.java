@@ -0,0 +1,57 @@
+package com.laben.islands.benchmarks;
+
+import com.laben.islands.Island;
+import com.laben.islands.Region;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/** Measures looking regions up in hash based collections, the way the map view and the warp items do, with the
+ * regions of a generated island. Reported in lookups per second **/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RegionLookupBenchmark {
+
+    @Param({"40", "80"})
+    public int level;
+
+    private Region[] regions; //The region of every tile, in map order
+    private Set<Region> regionSet;
+    private Map<Region, Integer> regionSizes;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Headless.initialize();
+        Island island = new Island(level * 31L, level);
+        List<Region> tileRegions = new ArrayList<>();
+        for (List<Region> row : island.getIterableRegionMap())
+            tileRegions.addAll(row);
+        regions = tileRegions.toArray(new Region[0]);
+        regionSet = new HashSet<>(island.getIterableRegionMap().getRegionIntegerConversionChart().values());
+        regionSizes = new HashMap<>();
+        for (Region region : regions)
+            regionSizes.merge(region, 1, Integer::sum);
+    }
+
+    @Benchmark
+    public boolean setContains() {
+        return regionSet.contains(nextRegion());
+    }
+
+    @Benchmark
+    public Integer mapGet() {
+        return regionSizes.get(nextRegion());
+    }
+
+    private Region nextRegion() {
+        if (++next == regions.length)
+            next = 0;
+        return regions[next];
+    }
+}
@@ -0,0 +1,44 @@
+package com.laben.islands.benchmarks;
+
+import com.laben.islands.Region;
+import com.laben.islands.Terrain;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/** Measures naming every region of an island at once the way island generation does, for islands with up to
+ * thousands of regions spread evenly over every terrain **/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RegionNamingBenchmark {
+
+    @Param({"20", "100", "1000", "5000"})
+    public int numRegions;
+
+    private SplittableRandom random;
+    private List<Integer> orderedRegions;
+    private Map<Integer, Terrain> terrains;
+
+    @Setup
+    public void setUp() {
+        Headless.initialize();
+        random = new SplittableRandom(numRegions);
+        orderedRegions = new ArrayList<>();
+        terrains = new HashMap<>();
+        List<Terrain> allTerrain = new ArrayList<>(Terrain.TERRAIN_SET);
+        for (int region = 1; region <= numRegions; region++) {
+            orderedRegions.add(region);
+            terrains.put(region, allTerrain.get(region % allTerrain.size()));
+        }
+    }
+
+    @Benchmark
+    public Map<Integer, Region> generatedRegions() {
+        return Region.generatedRegions(orderedRegions, terrains, random);
+    }
+}
@@ -0,0 +1,43 @@
+package com.laben.islands.benchmarks;
+
+import com.laben.islands.Terrain;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/** Measures picking random terrain for a level with some terrain ruled out, which happens once for every region an
+ * island colors. Run with -prof gc to check that the mask version does not allocate **/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TerrainBenchmark {
+
+    @Param({"1", "10", "40"})
+    public int level;
+
+    private SplittableRandom random;
+    private Set<Terrain> illegalTerrain;
+    private int illegalMask;
+
+    @Setup
+    public void setUp() {
+        random = new SplittableRandom(level);
+        illegalTerrain = new HashSet<>(Collections.singletonList(Terrain.WOODS));
+        illegalMask = Terrain.maskOf(illegalTerrain);
+    }
+
+    @Benchmark
+    public Terrain randomTerrainMask() {
+        return Terrain.randomTerrain(level, illegalMask, random);
+    }
+
+    //The same with the illegal terrain given as a set, which has to be turned into a mask first
+    @Benchmark
+    public Terrain randomTerrainSet() {
+        return Terrain.randomTerrain(level, illegalTerrain, random);
+    }
+}
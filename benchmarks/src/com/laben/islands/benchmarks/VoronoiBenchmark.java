@@ -0,0 +1,84 @@
+package com.laben.islands.benchmarks;
+
+import com.laben.islands.VoronoiEngine;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/** Measures labelling a Voronoi diagram with an island's density of sites (one per 20 cells). Brute force is
+ * quadratic in the side size, so it is only measured on the smaller grids **/
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VoronoiBenchmark {
+
+    private static final int CELLS_PER_SITE = 20;
+
+    @Benchmark
+    public int[] jumpFlood(FloodGrid grid) {
+        return grid.label(VoronoiEngine.JUMP_FLOOD);
+    }
+
+    @Benchmark
+    public int[] bruteForce(BruteForceGrid grid) {
+        return grid.label(VoronoiEngine.BRUTE_FORCE);
+    }
+
+    @State(Scope.Thread)
+    public static class FloodGrid extends Grid {
+        @Param({"20", "200", "2000"})
+        public int side;
+
+        @Setup
+        public void setUp() {
+            initialize(side);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class BruteForceGrid extends Grid {
+        @Param({"20", "100", "200"})
+        public int side;
+
+        @Setup
+        public void setUp() {
+            initialize(side);
+        }
+    }
+
+    /* A square grid with randomly placed, distinct sites */
+    public abstract static class Grid {
+        private int gridSide;
+        private int[] siteX;
+        private int[] siteY;
+        private int[] labels;
+        private SplittableRandom random;
+
+        void initialize(int side) {
+            gridSide = side;
+            random = new SplittableRandom(side);
+            int numSites = Math.max(1, side * side / CELLS_PER_SITE);
+            siteX = new int[numSites];
+            siteY = new int[numSites];
+            boolean[] used = new boolean[side * side];
+            for (int i = 0; i < numSites; i++) {
+                int cell;
+                do {
+                    cell = random.nextInt(side * side);
+                } while (used[cell]);
+                used[cell] = true;
+                siteX[i] = cell / side;
+                siteY[i] = cell % side;
+            }
+            labels = new int[side * side];
+        }
+
+        int[] label(VoronoiEngine engine) {
+            engine.label(gridSide, gridSide, siteX, siteY, labels, random);
+            return labels;
+        }
+    }
+}
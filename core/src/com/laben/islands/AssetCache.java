@@ -0,0 +1,275 @@
+package com.laben.islands;
+
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+
+import java.util.*;
+
+/** Keeps the assets of every screen loaded in the AssetManager across screen switches. Screens acquire the assets they
+ * need when they are built and release them when they are disposed. Every asset counts the screens holding it, and one
+ * nobody holds stays loaded until the texture memory of all loaded assets goes over the budget. At that point the
+ * assets released longest ago are unloaded first. Texture memory is estimated at 4 bytes per pixel of every texture
+ * an atlas or font draws from, so bundles and other assets without textures cost nothing and are never evicted.
+ *
+ * Assets can also be preloaded before any screen needs them. They load in the background a few milliseconds per call
+ * to update, and a screen acquiring them afterwards finds them loaded rather than waiting on them. Preloaded assets
+ * nobody holds can be evicted like any other, so assets a screen is about to wait on are requested instead, which
+ * holds them while they load.
+ */
+public class AssetCache {
+
+    public static final long DEFAULT_BUDGET_BYTES = 24L << 20; //Every atlas and font of the game, with room to spare
+
+    private final AssetManager manager;
+    private final Map<String, Integer> references = new HashMap<>(); //Loaded asset -> number of holders
+    private final Map<String, Long> sizes = new HashMap<>(); //Loaded asset -> estimated texture bytes
+    private final Set<String> unused = new LinkedHashSet<>(); //Assets nobody holds, least recently released first
+    private final Set<String> pending = new LinkedHashSet<>(); //Assets queued in the manager but not loaded yet
+    private final Set<String> counted = new HashSet<>(); //Requested assets whose hit or miss is already counted
+    private long budgetBytes = DEFAULT_BUDGET_BYTES;
+    private long loadedBytes;
+    private int hits;
+    private int misses;
+    private int evictions;
+
+    public AssetCache(AssetManager manager) {
+        this.manager = manager;
+    }
+
+    /* Input a map containing keys which correspond to asset file names and values which correspond to that asset's
+     * class. Loads whichever of them are not loaded yet and waits for them, then holds every one of them */
+    public void acquire(Map<String, Class> assets) {
+        List<String> loading = null; //Only allocated on a miss, so a warm cache allocates nothing
+        for (Map.Entry<String, Class> asset : assets.entrySet()) {
+            String fileName = asset.getKey();
+            Integer count = references.get(fileName);
+            //The screen a request was made for already counted whether the asset had to be loaded
+            boolean requested = counted.remove(fileName);
+            if (count != null && !pending.contains(fileName)) {
+                if (!requested)
+                    hits++;
+                references.put(fileName, count + 1);
+                unused.remove(fileName);
+            } else if (count != null) {
+                //Preloaded but not finished, so it has to be waited on after all
+                if (!requested)
+                    misses++;
+                references.put(fileName, count + 1);
+                if (loading == null)
+                    loading = new ArrayList<>();
+                loading.add(fileName);
+            } else {
+                misses++;
+                references.put(fileName, 1);
+                manager.load(fileName, asset.getValue());
+                if (loading == null)
+                    loading = new ArrayList<>();
+                loading.add(fileName);
+            }
+        }
+        if (loading == null)
+            return;
+        for (String fileName : loading) {
+            manager.finishLoadingAsset(fileName);
+            finishedLoading(fileName);
+        }
+        evictOverBudget();
+    }
+
+    /* Input a map containing keys which correspond to asset file names and values which correspond to that asset's
+     * class. Queues whichever of them are not loaded yet without holding them, so they load during update */
+    public void preload(Map<String, Class> assets) {
+        for (Map.Entry<String, Class> asset : assets.entrySet()) {
+            String fileName = asset.getKey();
+            if (references.containsKey(fileName))
+                continue;
+            references.put(fileName, 0);
+            pending.add(fileName);
+            manager.load(fileName, asset.getValue());
+        }
+    }
+
+    /* Input a map containing keys which correspond to asset file names and values which correspond to that asset's
+     * class. Queues whichever of them are not loaded yet, like preload, but holds every one of them right away, like
+     * acquire without the wait. Held assets are never evicted, so this is for assets a screen is going to wait on.
+     * Release them once the screen that needs them has acquired them. Whether each one had to be loaded is counted
+     * here, and not again when that screen acquires them */
+    public void request(Map<String, Class> assets) {
+        for (Map.Entry<String, Class> asset : assets.entrySet()) {
+            String fileName = asset.getKey();
+            Integer count = references.get(fileName);
+            if (count == null || pending.contains(fileName))
+                misses++;
+            else
+                hits++;
+            counted.add(fileName);
+            if (count == null) {
+                references.put(fileName, 1);
+                pending.add(fileName);
+                manager.load(fileName, asset.getValue());
+            } else {
+                references.put(fileName, count + 1);
+                unused.remove(fileName);
+            }
+        }
+    }
+
+    //Loads queued assets for at most about the given number of milliseconds. Returns whether nothing is left to load
+    public boolean update(int millis) {
+        if (pending.isEmpty())
+            return true;
+        manager.update(millis);
+        Iterator<String> iterator = pending.iterator();
+        while (iterator.hasNext()) {
+            String fileName = iterator.next();
+            if (manager.isLoaded(fileName)) {
+                iterator.remove();
+                finishedLoading(fileName);
+            }
+        }
+        evictOverBudget();
+        return pending.isEmpty();
+    }
+
+    //Whether or not every one of the given assets is loaded, so that acquiring them will not wait
+    public boolean isLoaded(Map<String, Class> assets) {
+        for (String fileName : assets.keySet()) {
+            if (!references.containsKey(fileName) || pending.contains(fileName))
+                return false;
+        }
+        return true;
+    }
+
+    //Whether or not any assets are queued
+    public boolean isLoading() {
+        return !pending.isEmpty();
+    }
+
+    //The fraction of queued work the manager has done, 1 when nothing is queued
+    public float getProgress() {
+        return pending.isEmpty() ? 1 : manager.getProgress();
+    }
+
+    //Stops holding the given assets. Those nobody else holds stay loaded while they fit in the budget
+    public void release(Collection<String> assets) {
+        for (String fileName : assets) {
+            Integer count = references.get(fileName);
+            if (count == null || count == 0)
+                throw new IllegalStateException("Released an asset that is not held: " + fileName);
+            references.put(fileName, count - 1);
+            if (count == 1)
+                unused.add(fileName);
+        }
+        evictOverBudget();
+    }
+
+    //Unloads every asset nobody holds, whatever the budget
+    public void clear() {
+        for (String fileName : new ArrayList<>(unused))
+            unload(fileName);
+    }
+
+    //Unloads every asset, held or not, and empties the cache
+    public void dispose() {
+        for (String fileName : new ArrayList<>(references.keySet()))
+            manager.unload(fileName);
+        references.clear();
+        sizes.clear();
+        unused.clear();
+        pending.clear();
+        counted.clear();
+        loadedBytes = 0;
+    }
+
+    public void setBudgetBytes(long budgetBytes) {
+        this.budgetBytes = budgetBytes;
+        evictOverBudget();
+    }
+
+    public long getBudgetBytes() {
+        return budgetBytes;
+    }
+
+    //The estimated texture memory of every loaded asset, held or not
+    public long getLoadedBytes() {
+        return loadedBytes;
+    }
+
+    //The number of assets acquired or requested while they were already loaded
+    public int getHits() {
+        return hits;
+    }
+
+    //The number of assets acquired or requested that had to be loaded
+    public int getMisses() {
+        return misses;
+    }
+
+    //The number of unused assets unloaded to stay within the budget
+    public int getEvictions() {
+        return evictions;
+    }
+
+    public AssetManager getManager() {
+        return manager;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d hits, %d misses, %d evictions, %d assets loaded (%d unused, %d pending), %.1f/%.1f MB",
+                hits, misses, evictions, references.size() - pending.size(), unused.size(), pending.size(),
+                loadedBytes / 1048576f, budgetBytes / 1048576f);
+    }
+
+    //Measures an asset that just finished loading. Unless a screen already holds it, it starts out unused
+    private void finishedLoading(String fileName) {
+        pending.remove(fileName);
+        long size = textureBytes(manager.get(fileName));
+        sizes.put(fileName, size);
+        loadedBytes += size;
+        if (references.get(fileName) == 0)
+            unused.add(fileName);
+    }
+
+    private void evictOverBudget() {
+        Iterator<String> iterator = unused.iterator();
+        while (loadedBytes > budgetBytes && iterator.hasNext()) {
+            String fileName = iterator.next();
+            if (sizes.get(fileName) == 0)
+                continue;
+            iterator.remove();
+            references.remove(fileName);
+            loadedBytes -= sizes.remove(fileName);
+            manager.unload(fileName);
+            evictions++;
+        }
+    }
+
+    private void unload(String fileName) {
+        unused.remove(fileName);
+        references.remove(fileName);
+        loadedBytes -= sizes.remove(fileName);
+        manager.unload(fileName);
+    }
+
+    //Estimates the memory taken up by the textures of an atlas or font
+    private static long textureBytes(Object asset) {
+        Set<Texture> textures = new HashSet<>();
+        if (asset instanceof TextureAtlas) {
+            for (Texture texture : ((TextureAtlas)asset).getTextures())
+                textures.add(texture);
+        } else if (asset instanceof BitmapFont) {
+            for (TextureRegion region : ((BitmapFont)asset).getRegions())
+                textures.add(region.getTexture());
+        } else if (asset instanceof Texture) {
+            textures.add((Texture)asset);
+        }
+        long bytes = 0;
+        for (Texture texture : textures)
+            bytes += 4L * texture.getWidth() * texture.getHeight();
+        return bytes;
+    }
+}
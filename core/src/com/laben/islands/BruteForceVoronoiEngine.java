@@ -0,0 +1,34 @@
+package com.laben.islands;
+
+import java.util.SplittableRandom;
+
+/** Labels each cell by measuring its squared distance to every site. Ties are broken uniformly at random using
+ * reservoir sampling, so no list of candidates has to be built per cell.
+ */
+public class BruteForceVoronoiEngine implements VoronoiEngine {
+
+    @Override
+    public void label(int width, int height, int[] siteX, int[] siteY, int[] labels, SplittableRandom random) {
+        int numSites = siteX.length;
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                int closest = -1;
+                int closestDistance = Integer.MAX_VALUE;
+                int ties = 0;
+                for (int i = 0; i < numSites; i++) {
+                    int dx = x - siteX[i];
+                    int dy = y - siteY[i];
+                    int distance = dx * dx + dy * dy;
+                    if (distance < closestDistance) {
+                        closestDistance = distance;
+                        closest = i;
+                        ties = 1;
+                    } else if (distance == closestDistance && random.nextInt(++ties) == 0) {
+                        closest = i;
+                    }
+                }
+                labels[x * height + y] = closest + 1;
+            }
+        }
+    }
+}
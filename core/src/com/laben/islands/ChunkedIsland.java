@@ -0,0 +1,274 @@
+package com.laben.islands;
+
+import com.badlogic.gdx.math.GridPoint2;
+
+import java.util.*;
+
+/** An Island with no practical size limit whose tiles are generated in square chunks as the player moves around it.
+ * Every chunk places a few Voronoi points (sites) derived only from the seed and the chunk's coordinates, and each tile
+ * belongs to the closest site of the chunks around it. Since a site is the same no matter which chunk asks for it, a
+ * region stretching over a chunk border is the same region on both sides of it, and its terrain and name come from the
+ * site's own random stream. Chunks far from the player are evicted and regenerated identically when they are reached
+ * again. Unlike a regular island, neighbouring regions may share a terrain since the regions around a chunk are never
+ * all known at once.
+ */
+public class ChunkedIsland extends Island {
+
+    public static final int CHUNK_SIZE = 8; //The side size in tiles of a chunk
+    public static final int VIEW_RADIUS = 1; //The number of chunks around the player's chunk shown on the map
+    private static final int SITES_PER_CHUNK = 3; //About 20 tiles per region, like on a regular island
+    private static final int SITE_SEARCH_RADIUS = 2; //Chunks searched for sites, enough to always find the closest
+    private static final int KEEP_RADIUS = VIEW_RADIUS + 1; //Chunks further than this from the player are evicted
+    private static final int TREASURE_RADIUS = 4; //The furthest the treasure may be in chunks from the start
+    private static final int CHUNK_CONTENTS_CACHE_SIZE = 16;
+    private static final int NUM_CHUNKS_PER_SIDE = 1 << 24;
+    private static final int WORLD_SIDE_SIZE = NUM_CHUNKS_PER_SIDE * CHUNK_SIZE;
+    private static final long SITE_SALT = 0x5a17e5a17e5a17e5L;
+    private static final long REGION_SALT = 0x7e61077e61077e61L;
+    private static final long TIE_SALT = 0x71e571e571e571e5L;
+
+    private final GenerationContext context;
+    private final Map<Long, Chunk> chunks; //Chunk key -> loaded chunk
+    private final Map<Long, Region> regions; //Site key -> region of every site used by a loaded chunk
+    private int focusChunkX;
+    private int focusChunkY;
+    private IterableRegionMap iterableRegionMap; //The map around the focus, built when it is first asked for
+    private int numChunksGenerated;
+    private int nextRegionId; //Regions are numbered in the order they are generated, a region generated again is new
+
+    public ChunkedIsland(int level) {
+        this(new SplittableRandom().nextLong(), level);
+    }
+
+    //Generates the chunked island belonging to the given seed. Same seed, same island
+    public ChunkedIsland(long seed, int level) {
+        super(seed, WORLD_SIDE_SIZE, WORLD_SIDE_SIZE);
+        context = new GenerationContext(seed, level);
+        chunks = new HashMap<>();
+        regions = new HashMap<>();
+        GridPoint2 start = getStartingLocation();
+        focusChunkX = start.x / CHUNK_SIZE;
+        focusChunkY = start.y / CHUNK_SIZE;
+        //Randomly set treasure location somewhere around the start
+        SplittableRandom random = context.getRandom();
+        int treasureRange = (2 * TREASURE_RADIUS + 1) * CHUNK_SIZE;
+        GridPoint2 treasureLocation = new GridPoint2();
+        do {
+            treasureLocation.set(start.x - TREASURE_RADIUS * CHUNK_SIZE + random.nextInt(treasureRange),
+                    start.y - TREASURE_RADIUS * CHUNK_SIZE + random.nextInt(treasureRange));
+        } while (treasureLocation.equals(start));
+        setTreasureLocation(treasureLocation);
+        setRandom(context.split());
+    }
+
+    //The player starts in the middle of the island
+    @Override
+    public GridPoint2 getStartingLocation() {
+        return new GridPoint2(WORLD_SIDE_SIZE / 2, WORLD_SIDE_SIZE / 2);
+    }
+
+    @Override
+    public Tile tileAtPoint(GridPoint2 point) {
+        Chunk chunk = chunkAt(point.x / CHUNK_SIZE, point.y / CHUNK_SIZE);
+        return new Tile(this, new GridPoint2(point), chunk.store,
+                chunk.store.indexOf(point.x % CHUNK_SIZE, point.y % CHUNK_SIZE));
+    }
+
+    //Moves the map to the chunk of the given point and evicts every chunk too far from it
+    @Override
+    public void moveFocus(GridPoint2 point) {
+        int chunkX = point.x / CHUNK_SIZE;
+        int chunkY = point.y / CHUNK_SIZE;
+        if (chunkX == focusChunkX && chunkY == focusChunkY)
+            return;
+        focusChunkX = chunkX;
+        focusChunkY = chunkY;
+        iterableRegionMap = null;
+        evictFarChunks();
+    }
+
+    //The map of every chunk at most VIEW_RADIUS chunks away from the player's chunk
+    @Override
+    public IterableRegionMap getIterableRegionMap() {
+        if (iterableRegionMap == null)
+            iterableRegionMap = regionMapAroundFocus();
+        return iterableRegionMap;
+    }
+
+    @Override
+    public int getGenerationRepairs() {
+        return 0;
+    }
+
+    public int getNumLoadedChunks() {
+        return chunks.size();
+    }
+
+    //The number of times a chunk had to be generated, including regenerations after eviction
+    public int getNumChunksGenerated() {
+        return numChunksGenerated;
+    }
+
+    //Returns the chunk at the given chunk coordinates, generating it if it is not loaded
+    private Chunk chunkAt(int chunkX, int chunkY) {
+        long key = chunkKey(chunkX, chunkY);
+        Chunk chunk = chunks.get(key);
+        if (chunk == null) {
+            chunk = generatedChunk(chunkX, chunkY);
+            chunks.put(key, chunk);
+            numChunksGenerated++;
+        }
+        return chunk;
+    }
+
+    private Chunk generatedChunk(int chunkX, int chunkY) {
+        int originX = chunkX * CHUNK_SIZE;
+        int originY = chunkY * CHUNK_SIZE;
+        //Gather the sites of every chunk close enough to hold the closest site of one of this chunk's tiles
+        int maxSites = (2 * SITE_SEARCH_RADIUS + 1) * (2 * SITE_SEARCH_RADIUS + 1) * SITES_PER_CHUNK;
+        int[] siteX = new int[maxSites];
+        int[] siteY = new int[maxSites];
+        long[] siteKeys = new long[maxSites];
+        int numSites = 0;
+        for (int x = chunkX - SITE_SEARCH_RADIUS; x <= chunkX + SITE_SEARCH_RADIUS; x++) {
+            for (int y = chunkY - SITE_SEARCH_RADIUS; y <= chunkY + SITE_SEARCH_RADIUS; y++) {
+                if (!chunkInBounds(x, y))
+                    continue;
+                SplittableRandom random = new SplittableRandom(
+                        GenerationContext.seedForPoint(getSeed() ^ SITE_SALT, x, y));
+                BitSet usedPositions = new BitSet(CHUNK_SIZE * CHUNK_SIZE);
+                for (int site = 0; site < SITES_PER_CHUNK; site++) {
+                    int position;
+                    do {
+                        position = random.nextInt(CHUNK_SIZE * CHUNK_SIZE);
+                    } while (usedPositions.get(position));
+                    usedPositions.set(position);
+                    //Site coordinates are relative to the chunk being generated
+                    siteX[numSites] = x * CHUNK_SIZE + position / CHUNK_SIZE - originX;
+                    siteY[numSites] = y * CHUNK_SIZE + position % CHUNK_SIZE - originY;
+                    siteKeys[numSites] = chunkKey(x, y) * SITES_PER_CHUNK + site;
+                    numSites++;
+                }
+            }
+        }
+        int[] labels = new int[CHUNK_SIZE * CHUNK_SIZE];
+        VoronoiEngine.BRUTE_FORCE.label(CHUNK_SIZE, CHUNK_SIZE, Arrays.copyOf(siteX, numSites),
+                Arrays.copyOf(siteY, numSites), labels,
+                new SplittableRandom(GenerationContext.seedForPoint(getSeed() ^ TIE_SALT, chunkX, chunkY)));
+        //Number the regions of the chunk from 1 in the order they are found
+        Map<Integer, Integer> regionNumbers = new HashMap<>();
+        Map<Integer, Region> regionIntegerConversionChart = new HashMap<>();
+        long[] regionKeys = new long[SITES_PER_CHUNK * 4 + 1];
+        int[][] numMap = new int[CHUNK_SIZE][CHUNK_SIZE];
+        for (int x = 0; x < CHUNK_SIZE; x++) {
+            for (int y = 0; y < CHUNK_SIZE; y++) {
+                int site = labels[x * CHUNK_SIZE + y] - 1;
+                Integer regionNumber = regionNumbers.get(site);
+                if (regionNumber == null) {
+                    regionNumber = regionNumbers.size() + 1;
+                    regionNumbers.put(site, regionNumber);
+                    regionIntegerConversionChart.put(regionNumber, regionForSite(siteKeys[site]));
+                    if (regionNumber >= regionKeys.length)
+                        regionKeys = Arrays.copyOf(regionKeys, regionKeys.length * 2);
+                    regionKeys[regionNumber] = siteKeys[site];
+                }
+                numMap[x][y] = regionNumber;
+            }
+        }
+        TileStore store = new TileStore(numMap, regionIntegerConversionChart, context, originX, originY,
+                CHUNK_CONTENTS_CACHE_SIZE);
+        GridPoint2 treasureLocation = getTreasureLocation();
+        if (treasureLocation.x / CHUNK_SIZE == chunkX && treasureLocation.y / CHUNK_SIZE == chunkY)
+            store.setHasTreasure(store.indexOf(treasureLocation.x - originX, treasureLocation.y - originY), true);
+        return new Chunk(chunkX, chunkY, store, numMap, Arrays.copyOf(regionKeys, regionNumbers.size() + 1));
+    }
+
+    //Returns the region grown from the given site. Regions are generated from the site alone
+    private Region regionForSite(long siteKey) {
+        Region region = regions.get(siteKey);
+        if (region == null) {
+            SplittableRandom random = new SplittableRandom(GenerationContext.seedForPoint(getSeed() ^ REGION_SALT,
+                    (int)(siteKey >>> 32), (int)siteKey));
+            Terrain terrain = Terrain.randomTerrain(context.getLevel(), 0, random);
+            region = Region.generatedRegion(++nextRegionId, terrain, random);
+            regions.put(siteKey, region);
+        }
+        return region;
+    }
+
+    //Unloads every chunk further than KEEP_RADIUS chunks from the focus, along with the regions only they used
+    private void evictFarChunks() {
+        Iterator<Chunk> iterator = chunks.values().iterator();
+        while (iterator.hasNext()) {
+            Chunk chunk = iterator.next();
+            if (Math.abs(chunk.chunkX - focusChunkX) > KEEP_RADIUS ||
+                    Math.abs(chunk.chunkY - focusChunkY) > KEEP_RADIUS)
+                iterator.remove();
+        }
+        Set<Long> usedSites = new HashSet<>();
+        for (Chunk chunk : chunks.values()) {
+            for (int regionNumber = 1; regionNumber < chunk.regionKeys.length; regionNumber++)
+                usedSites.add(chunk.regionKeys[regionNumber]);
+        }
+        regions.keySet().retainAll(usedSites);
+    }
+
+    //Stitches the chunks around the focus into a single map, numbering regions from 1 in the order they are found
+    private IterableRegionMap regionMapAroundFocus() {
+        int minChunkX = Math.max(0, focusChunkX - VIEW_RADIUS);
+        int minChunkY = Math.max(0, focusChunkY - VIEW_RADIUS);
+        int maxChunkX = Math.min(NUM_CHUNKS_PER_SIDE - 1, focusChunkX + VIEW_RADIUS);
+        int maxChunkY = Math.min(NUM_CHUNKS_PER_SIDE - 1, focusChunkY + VIEW_RADIUS);
+        int[][] numMap = new int[(maxChunkX - minChunkX + 1) * CHUNK_SIZE][(maxChunkY - minChunkY + 1) * CHUNK_SIZE];
+        Map<Long, Integer> regionNumbers = new HashMap<>();
+        Map<Integer, Region> regionIntegerConversionChart = new HashMap<>();
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+            for (int chunkY = minChunkY; chunkY <= maxChunkY; chunkY++) {
+                Chunk chunk = chunkAt(chunkX, chunkY);
+                int offsetX = (chunkX - minChunkX) * CHUNK_SIZE;
+                int offsetY = (chunkY - minChunkY) * CHUNK_SIZE;
+                for (int x = 0; x < CHUNK_SIZE; x++) {
+                    for (int y = 0; y < CHUNK_SIZE; y++) {
+                        int chunkRegion = chunk.numMap[x][y];
+                        long siteKey = chunk.regionKeys[chunkRegion];
+                        Integer regionNumber = regionNumbers.get(siteKey);
+                        if (regionNumber == null) {
+                            regionNumber = regionNumbers.size() + 1;
+                            regionNumbers.put(siteKey, regionNumber);
+                            regionIntegerConversionChart.put(regionNumber,
+                                    chunk.store.getRegion(chunk.store.indexOf(x, y)));
+                        }
+                        numMap[offsetX + x][offsetY + y] = regionNumber;
+                    }
+                }
+            }
+        }
+        return new IterableRegionMap(numMap, regionIntegerConversionChart, this, minChunkX * CHUNK_SIZE,
+                minChunkY * CHUNK_SIZE);
+    }
+
+    private static boolean chunkInBounds(int chunkX, int chunkY) {
+        return 0 <= chunkX && chunkX < NUM_CHUNKS_PER_SIDE && 0 <= chunkY && chunkY < NUM_CHUNKS_PER_SIDE;
+    }
+
+    private static long chunkKey(int chunkX, int chunkY) {
+        return (long)chunkX * NUM_CHUNKS_PER_SIDE + chunkY;
+    }
+
+    /* A loaded chunk: the store of its tiles, its numeric map and the site key of each of its region numbers */
+    private static class Chunk {
+        private final int chunkX;
+        private final int chunkY;
+        private final TileStore store;
+        private final int[][] numMap;
+        private final long[] regionKeys;
+
+        Chunk(int chunkX, int chunkY, TileStore store, int[][] numMap, long[] regionKeys) {
+            this.chunkX = chunkX;
+            this.chunkY = chunkY;
+            this.store = store;
+            this.numMap = numMap;
+            this.regionKeys = regionKeys;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.laben.islands;
+
+import java.util.SplittableRandom;
+
+/** Carries the state shared by every step of generating an Island: its seed, its level and a single random stream
+ * derived from the seed. Steps that always run in the same order draw from (or split) the stream, while tiles derive
+ * their own stream from their coordinates so that their contents do not depend on the order they are generated in.
+ * Two contexts created with the same seed and level therefore produce bit-identical islands.
+ */
+public class GenerationContext {
+
+    private final long seed;
+    private final int level;
+    private final SplittableRandom random;
+
+    public GenerationContext(long seed, int level) {
+        this.seed = seed;
+        this.level = level;
+        random = new SplittableRandom(seed);
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    //The main stream of the generation. Only to be used by steps that run in a fixed order
+    public SplittableRandom getRandom() {
+        return random;
+    }
+
+    //Returns an independent stream for a step of the generation, such as a row or a region
+    public SplittableRandom split() {
+        return random.split();
+    }
+
+    //Returns the stream belonging to the tile at the given coordinates. Always the same for the same seed
+    public SplittableRandom randomForTile(int x, int y) {
+        return new SplittableRandom(seedForPoint(seed, x, y));
+    }
+
+    //Combines a seed and a pair of coordinates into a new, well distributed seed
+    public static long seedForPoint(long seed, int x, int y) {
+        return mix64(seed ^ mix64(((long)x << 32) | (y & 0xffffffffL)));
+    }
+
+    //Returns a normally distributed value with mean 0 and standard deviation 1 (Marsaglia polar method)
+    public static double nextGaussian(SplittableRandom random) {
+        double v1;
+        double v2;
+        double s;
+        do {
+            v1 = 2 * random.nextDouble() - 1;
+            v2 = 2 * random.nextDouble() - 1;
+            s = v1 * v1 + v2 * v2;
+        } while (s >= 1 || s == 0);
+        return v1 * StrictMath.sqrt(-2 * StrictMath.log(s) / s);
+    }
+
+    //The finalizer of SplitMix64, scrambles all bits of the given value
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -15,63 +15,111 @@ public class Island {
     private static final int NUM_LEVELS_OF_SAME_SIZE = 5; //The # of levels in a row that have the same size island
     private static final int MAX_ISLAND_SIDE_SIZE = 20;
 
-    private Tile[][] tileSet; //The set of tiles. First number is width value (x), second is height (y)
+    private static volatile VoronoiEngine voronoiEngine; //null picks an engine based off of the island's size
+
+    private TileStore tileStore; //The contents of every tile
     private GridPoint2 treasureLocation; //The location of the treasure
     private final int width; //the width in tiles of the island
     private final int height; //the height in tiles of the island
+    private final long seed; //The seed this island was generated from
     private IterableRegionMap iterableRegionMap;
+    private SplittableRandom random; //Stream for random events on this island once it has been generated
+    private int generationRepairs; //The number of region conflicts that had to be repaired during generation
+    private int generationFragments; //The number of disconnected region pieces merged away during generation
 
     //Input the width and height of the Island as well as the level of this island (higher equals higher difficulty)
     public Island(int width, int height, int numRegions, int level) {
+        this(new SplittableRandom().nextLong(), width, height, numRegions, level);
+    }
+
+    //Generates the Island of the given dimensions that belongs to the given seed. Same seed, same island
+    public Island(long seed, int width, int height, int numRegions, int level) {
+        this.width = width;
+        this.height = height;
+        this.seed = seed;
+        initializeIsland(new GenerationContext(seed, level), numRegions);
+    }
+
+    //Creates an island of the given size without generating it, for subclasses which generate their tiles themselves
+    protected Island(long seed, int width, int height) {
         this.width = width;
         this.height = height;
-        initializeIsland(width, height, numRegions, level);
+        this.seed = seed;
+    }
+
+    //Rebuilds an island which was already generated once, such as one loaded from an IslandSnapshot
+    Island(GenerationContext context, int[][] numMap, Map<Integer, Region> regionIntegerConversionChart,
+           TileStore tileStore, GridPoint2 treasureLocation, int generationRepairs, int generationFragments) {
+        this(context.getSeed(), numMap.length, numMap[0].length);
+        this.tileStore = tileStore;
+        this.treasureLocation = treasureLocation;
+        this.generationRepairs = generationRepairs;
+        this.generationFragments = generationFragments;
+        iterableRegionMap = new IterableRegionMap(numMap, regionIntegerConversionChart, this);
+        random = context.split();
     }
 
     //Generates an Island, automatically determining its other variables based off of the level
     public Island(int level) {
-        int sideSize = Math.min(islandSideSize(level), MAX_ISLAND_SIDE_SIZE);
-        width = sideSize;
-        height = sideSize;
-        int numRegions = (int)Math.ceil(Math.pow(sideSize, 2) / AVG_TILES_PER_REGION);
-        initializeIsland(sideSize, sideSize, numRegions, level);
+        this(new SplittableRandom().nextLong(), level);
+    }
+
+    //Generates the Island of the given level that belongs to the given seed. Same seed, same island
+    public Island(long seed, int level) {
+        this(seed, sideSizeForLevel(level), sideSizeForLevel(level), numRegionsForSideSize(sideSizeForLevel(level)),
+                level);
     }
 
     //Essentially the constructor, generates an island with a given width, height, and level
-    private void initializeIsland(int width, int height, int numRegions, int level) {
-        tileSet = new Tile[width][height]; //initialize tile set
-        boolean successfulMapGenerated;
-        do {
-            try {
-                //Step 1: Generate Numerical Island
-                int[][] numMap = mapWithNumericRegions(width, height, numRegions);
-                Map<Integer, Set<Integer>> regionAdjacencies = allAdjacentRegionsInNumericMap(numMap);
-                List<Integer> orderedRegions = regionsOrderedBySize(numMap);
-                //Step 2: Assign specific regions
-                Map<Integer, Region> regionIntegerConversionChart = Region.generatedRegions(level, orderedRegions, regionAdjacencies);
-                iterableRegionMap = new IterableRegionMap(numMap, regionIntegerConversionChart, tileSet);
-                successfulMapGenerated = true;
-            } catch (RuntimeException e) {
-                successfulMapGenerated = false;
-            }
-        } while (!successfulMapGenerated);
+    private void initializeIsland(GenerationContext context, int numRegions) {
+        int level = context.getLevel();
+        //Step 1: Generate Numerical Island
+        int[][] numMap = mapWithNumericRegions(width, height, numRegions, context.split());
+        generationFragments = RegionConnectivity.connect(numMap).getNumFragments();
+        RegionAdjacency regionAdjacency = new RegionAdjacency(numMap);
+        List<Integer> orderedRegions = regionsOrderedBySize(numMap);
+        //Step 2: Give every region a terrain, repairing regions that are left without a legal one
+        RegionColoring coloring = RegionColoring.solve(level, orderedRegions, regionAdjacency, context.split());
+        coloring.relabel(numMap);
+        generationRepairs = coloring.getRepairs();
+        //Step 3: Assign specific regions
+        Map<Integer, Region> regionIntegerConversionChart = Region.generatedRegions(coloring.getOrderedRegions(),
+                coloring.getTerrains(), context.split());
+        iterableRegionMap = new IterableRegionMap(numMap, regionIntegerConversionChart, this);
         //create tiles
-        for (int x = 0; x < getIterableRegionMap().getNumericalMap().length; x++) {
-            for (int y = 0; y < getIterableRegionMap().getNumericalMap()[0].length; y++) {
-                tileSet[x][y] = new Tile(getIterableRegionMap().getRegionIntegerConversionChart().get(
-                        getIterableRegionMap().getNumericalMap()[x][y]), this, new GridPoint2(x, y), level);
-            }
-        }
+        tileStore = new TileStore(numMap, regionIntegerConversionChart, context);
         //Randomly set treasure location
-        GridPoint2 illegalLocation = new GridPoint2((width - 1)/ 2, height - 1);
+        GridPoint2 illegalLocation = getStartingLocation();
         GridPoint2 newTreasureLocation = new GridPoint2();
-        Random random = new Random();
+        SplittableRandom random = context.getRandom();
         do {
             newTreasureLocation.set(random.nextInt(width), random.nextInt(height));
         } while(newTreasureLocation.equals(illegalLocation));
         treasureLocation = newTreasureLocation;
         tileAtPoint(newTreasureLocation).setHasTreasure(true);
+        this.random = context.split();
+    }
+
+    //Sets the engine used to build the Voronoi diagram of every island generated from now on. Null restores the default
+    public static void setVoronoiEngine(VoronoiEngine engine) {
+        voronoiEngine = engine;
+    }
 
+    public long getSeed() {
+        return seed;
+    }
+
+    //The random stream for events happening on this island, such as warps. Not to be used during generation
+    public SplittableRandom getRandom() {
+        return random;
+    }
+
+    public int getGenerationRepairs() {
+        return generationRepairs;
+    }
+
+    public int getGenerationFragments() {
+        return generationFragments;
     }
 
     public int getWidth() {
@@ -86,6 +134,23 @@ public class Island {
         return treasureLocation;
     }
 
+    protected void setTreasureLocation(GridPoint2 treasureLocation) {
+        this.treasureLocation = treasureLocation;
+    }
+
+    protected void setRandom(SplittableRandom random) {
+        this.random = random;
+    }
+
+    //The point the player starts on, in the middle of the bottom row
+    public GridPoint2 getStartingLocation() {
+        return new GridPoint2((width - 1) / 2, height - 1);
+    }
+
+    //Called whenever the player moves to the given point. Islands which are not generated all at once load around it
+    public void moveFocus(GridPoint2 point) {
+    }
+
     public IterableRegionMap getIterableRegionMap() {
         return iterableRegionMap;
     }
@@ -98,183 +163,89 @@ public class Island {
     }
 
     public Tile tileAtPoint(GridPoint2 point) {
-        return tileSet[point.x][point.y];
+        return new Tile(this, new GridPoint2(point), tileStore, tileStore.indexOf(point.x, point.y));
     }
 
-    //returns from a list of Integers representing regions from largest to smallest
+    //Returns the regions on the map from largest to smallest, ties broken by the higher region number first
     private static List<Integer> regionsOrderedBySize(int[][] map) {
         //Find the number of points in each region
-        int[] sizeCount = new int[(int)Math.pow(map.length, 2) / AVG_TILES_PER_REGION + 10]; //buffer size of 10
-        for (int x = 0; x < map.length; x++) {
-            for (int y = 0; y < map[0].length; y++) {
-                sizeCount[map[x][y]] += 100;
-            }
+        int maxRegion = 0;
+        for (int[] column : map) {
+            for (int region : column)
+                maxRegion = Math.max(maxRegion, region);
         }
-
-        //Puts this data into a Map for easy access, key is the size * 100 about, value is the region num
-        Map<Integer, Integer> regionSizes = new HashMap<>();
-        int i = 1;
-
-        while (sizeCount[i] > 0) {
-            while (regionSizes.containsKey(sizeCount[i])) {
-                sizeCount[i] ++;
+        int[] sizes = new int[maxRegion + 1];
+        int numRegions = 0;
+        for (int[] column : map) {
+            for (int region : column) {
+                if (sizes[region]++ == 0)
+                    numRegions++;
             }
-            regionSizes.put(sizeCount[i], i);
-            i++;
         }
-
-        List<Integer> sizeList = new ArrayList<>(regionSizes.keySet());
-        Collections.sort(sizeList);
-        Collections.reverse(sizeList);
-
-        List<Integer> sortedRegionNums = new ArrayList<>();
-        for (Integer size: sizeList) {
-            sortedRegionNums.add(regionSizes.get(size));
+        //Pack every size with its region so that one primitive sort orders both
+        long[] sizesAndRegions = new long[numRegions];
+        int next = 0;
+        for (int region = 0; region <= maxRegion; region++) {
+            //Regions whose only point was merged into a neighbour are empty and skipped
+            if (sizes[region] > 0)
+                sizesAndRegions[next++] = ((long)sizes[region] << 32) | region;
         }
+        Arrays.sort(sizesAndRegions);
+        List<Integer> sortedRegionNums = new ArrayList<>(numRegions);
+        for (int i = numRegions - 1; i >= 0; i--)
+            sortedRegionNums.add((int)sizesAndRegions[i]);
         return sortedRegionNums;
-
-    }
-
-    /* Given an island map with numerically defined regions, returns a (Java) Map in which the keys correspond
-    * to Integers representing regions and the values correspond to the Integers representing the adjacent
-    * regions to the key region. Note that diagonal points are not considered adjacent */
-    private  static Map<Integer, Set<Integer>> allAdjacentRegionsInNumericMap(int[][] map) {
-        Map<Integer, Set<Integer>>  adjacencyMap = new HashMap<>();
-        //Iterate through entire given grid
-        for (int x = 0; x < map.length; x++) {
-            for (int y = 0; y < map[0].length; y++) {
-                if (!adjacencyMap.containsKey(map[x][y])) {
-                    adjacencyMap.put(map[x][y], new HashSet<Integer>());
-                }
-                //Check surrounding points and add any to set
-                adjacencyMap.get(map[x][y]).addAll(adjacentRegionsToPoint(map, new GridPoint2(x, y)));
-            }
-        }
-        return adjacencyMap;
     }
 
     //Returns a matrix with different numbers representing different regions
-    private static int[][] mapWithNumericRegions(int width, int height, int numRegions) {
+    private static int[][] mapWithNumericRegions(int width, int height, int numRegions, SplittableRandom random) {
         //Uses Voronoi Diagram
-        int[][] map = new int[width][height]; //All points on grid default to 0
         //Step 1: Select random points on the grid
-        Set<GridPoint2> vPoints = randomVPoints(width, height, numRegions);
-        //Step 2: Assign those points to a unique non 0 value
-        int count = 1;
-        for (GridPoint2 point : vPoints)
-            map[point.x][point.y] = count++;
-        //Step 3: Assign all points on grid to closest v point
-        return completeVoronoiMap(map, vPoints);
+        int[] vPointsX = new int[numRegions];
+        int[] vPointsY = new int[numRegions];
+        randomVPoints(width, height, vPointsX, vPointsY, random);
+        //Step 2 & 3: Number the points from 1 and assign all points on grid to closest v point
+        return completeVoronoiMap(width, height, vPointsX, vPointsY, random);
     }
 
-    //Given a grid with specified non 0 Voronoi points, fills out the entire grid as Voronoi diagram
-    private static int[][] completeVoronoiMap(int[][] map, Set<GridPoint2> vPoints) {
-        for (int x = 0; x < map.length; x++) {
-            for (int y = 0; y < map[0].length; y++) {
-                if (!vPoints.contains(new GridPoint2(x, y))) { //If its not a V Point
-                    GridPoint2 closestPoint = closestPoint(new GridPoint2(x, y), vPoints);
-                    map[x][y] = map[closestPoint.x][closestPoint.y];
-                }
-            }
-        }
-        return numMapWithoutLonePoints(map);
-    }
-
-    //Removes all stranded tiles from map
-    private static int[][] numMapWithoutLonePoints(int[][] map) {
-        for (int x = 0; x < map.length; x++) {
-            for (int y = 0; y < map[0].length; y++) {
-                if (pointIsAlone(map, new GridPoint2(x, y))) {
-                    map[x][y] = randomAdjacentValueInNumMap(map, new GridPoint2(x, y));
-                }
-            }
-        }
+    //Given the Voronoi points of a grid, fills out the entire grid as Voronoi diagram
+    private static int[][] completeVoronoiMap(int width, int height, int[] vPointsX, int[] vPointsY, SplittableRandom random) {
+        VoronoiEngine engine = voronoiEngine != null ? voronoiEngine :
+                VoronoiEngine.forGrid(width, height, vPointsX.length);
+        int[] labels = new int[width * height];
+        engine.label(width, height, vPointsX, vPointsY, labels, random);
+        int[][] map = new int[width][height];
+        for (int x = 0; x < width; x++)
+            System.arraycopy(labels, x * height, map[x], 0, height);
         return map;
     }
 
-    //Returns whether or not the point is alone
-    private static boolean pointIsAlone(int[][] map, GridPoint2 point) {
-        int x = point.x;
-        int y = point.y;
-        int value = map[x][y];
-        if (x > 0 && map[x - 1][y] == value)
-            return false;
-        if (x < map.length - 1 && map[x + 1][y] == value)
-            return false;
-        if (y > 0 && map[x][y + 1] == value)
-            return false;
-        return y >= map[0].length - 1 || map[x][y - 1] != value;
-    }
-
-    //Returns a random adjacent value in a num map
-    private static int randomAdjacentValueInNumMap(int[][] map, GridPoint2 point) {
-        int x = point.x;
-        int y = point.y;
-        Random random = new Random();
-        List<Integer> possibleValues = new ArrayList<>(4);
-        if (x > 0)
-            possibleValues.add(map[x - 1][y]);
-        if (x < map.length - 1)
-            possibleValues.add(map[x + 1][y]);
-        if (y > 0)
-            possibleValues.add(map[x][y - 1]);
-        if (y < map[0].length - 1)
-            possibleValues.add(map[x][y + 1]);
-        return possibleValues.get(random.nextInt(possibleValues.size()));
-    }
-
-    //returns a set of randomly determined v (Voronoi) points given the dimensions of a map
-    private static Set<GridPoint2> randomVPoints(int width, int height, int numVPoints) {
-        Set<GridPoint2> points = new HashSet<>();
-        Random random = new Random();
-        for (int i = 0; i < numVPoints; i++) {
-            GridPoint2 vPoint = new GridPoint2(); //the special point on the voronoi diagram
+    //Fills the given arrays with randomly determined, distinct v (Voronoi) points given the dimensions of a map
+    private static void randomVPoints(int width, int height, int[] vPointsX, int[] vPointsY, SplittableRandom random) {
+        BitSet taken = new BitSet(width * height);
+        for (int i = 0; i < vPointsX.length; i++) {
+            int x;
+            int y;
             do {
-                vPoint.set(random.nextInt(width), random.nextInt(height));
-            } while (points.contains(vPoint));
-            points.add(vPoint);
+                x = random.nextInt(width);
+                y = random.nextInt(height);
+            } while (taken.get(x * height + y));
+            taken.set(x * height + y);
+            vPointsX[i] = x;
+            vPointsY[i] = y;
         }
-        return points;
-    }
-
-    //returns the distance between two points
-    private static double distanceBetweenPoints(GridPoint2 a, GridPoint2 b) {
-        return Math.sqrt(Math.pow(a.x - b.x, 2) + Math.pow(a.y - b.y, 2));
     }
 
-    //Given a specific point and a set of points, returns the closest point, randomly deciding in ties
-    private static GridPoint2 closestPoint(GridPoint2 specificPoint, Set<GridPoint2> points) {
-        double distance = Double.POSITIVE_INFINITY;
-        Random random = new Random();
-        List<GridPoint2> possibleClosestPoints = new ArrayList<>();
-        for (GridPoint2 farPoint : points) {
-            if (distanceBetweenPoints(specificPoint, farPoint) < distance) {
-                possibleClosestPoints.clear();
-                possibleClosestPoints.add(farPoint);
-                distance = distanceBetweenPoints(specificPoint, farPoint);
-            }
-            else if (distanceBetweenPoints(specificPoint, farPoint) == distance)
-                possibleClosestPoints.add(farPoint);
-        }
-        return possibleClosestPoints.get(random.nextInt(possibleClosestPoints.size()));
+    //Given the level, returns the side size of the island, capped at the maximum side size
+    private static int sideSizeForLevel(int level) {
+        return Math.min(islandSideSize(level), MAX_ISLAND_SIDE_SIZE);
     }
 
-    //Given a numerically defined map and a point on that map, returns all regions adjacent to that point
-    private static Set<Integer> adjacentRegionsToPoint(int[][] map, GridPoint2 point) {
-        Set<Integer> adjacentRegions = new HashSet<>();
-        try { adjacentRegions.add(map[point.x + 1][point.y]); }
-        catch (IndexOutOfBoundsException e) {}
-        try {adjacentRegions.add(map[point.x - 1][point.y]); }
-        catch (IndexOutOfBoundsException e) {}
-        try {adjacentRegions.add(map[point.x][point.y + 1]); }
-        catch (IndexOutOfBoundsException e) {}
-        try {adjacentRegions.add(map[point.x][point.y - 1]); }
-        catch (IndexOutOfBoundsException e) {}
-        adjacentRegions.remove(map[point.x][point.y]);
-        return adjacentRegions;
+    //Returns the number of regions an island with the given side size is split into
+    private static int numRegionsForSideSize(int sideSize) {
+        return (int)Math.ceil(Math.pow(sideSize, 2) / AVG_TILES_PER_REGION);
     }
 
-
     //Given the level, returns what the island's side size should be
     private static int islandSideSize(int level) {
         return (int)Math.ceil((double)level / (double)NUM_LEVELS_OF_SAME_SIZE) + LEVEL1_ISLAND_SIDE_SIZE - 1;
@@ -291,12 +262,29 @@ public class Island {
         private final int numColumns;
         private final int[][] numericalMap;
         private final Map<Integer, Region> regionIntegerConversionChart;
-        private final Tile[][] tileSet;
+        private final Map<Region, Integer> regionNumbers; //The reverse of regionIntegerConversionChart
+        private final RegionIndex regionIndex;
+        private RegionBoundaries regionBoundaries; //Traced when they are first asked for
+        private final Island island;
+        private final int originX; //The island coordinates of the top left tile of this map
+        private final int originY;
+
+        private IterableRegionMap(int[][] mapData, Map<Integer, Region> regionIntegerConversionChart, Island island) {
+            this(mapData, regionIntegerConversionChart, island, 0, 0);
+        }
 
-        private IterableRegionMap(int[][] mapData, Map<Integer, Region> regionIntegerConversionChart, Tile[][] tileSet) {
+        //Creates a map of only part of the island, whose top left tile lies at the given island coordinates
+        IterableRegionMap(int[][] mapData, Map<Integer, Region> regionIntegerConversionChart, Island island,
+                          int originX, int originY) {
             numericalMap = mapData;
-            this.tileSet = tileSet;
+            this.island = island;
+            this.originX = originX;
+            this.originY = originY;
             this.regionIntegerConversionChart = regionIntegerConversionChart;
+            regionNumbers = new HashMap<>();
+            for (Map.Entry<Integer, Region> entry : regionIntegerConversionChart.entrySet())
+                regionNumbers.put(entry.getValue(), entry.getKey());
+            regionIndex = new RegionIndex(mapData);
             numRows = mapData[0].length;
             numColumns = mapData.length;
             //initialize the list of rows
@@ -318,6 +306,24 @@ public class Island {
             return regionIntegerConversionChart;
         }
 
+        //The tiles, area, bounding box and centroid of every region, in the coordinates of this map
+        public RegionIndex getRegionIndex() {
+            return regionIndex;
+        }
+
+        //The outline of every region, in the coordinates of this map
+        public RegionBoundaries getRegionBoundaries() {
+            if (regionBoundaries == null)
+                regionBoundaries = new RegionBoundaries(numericalMap);
+            return regionBoundaries;
+        }
+
+        //The number the region has on this map, -1 if it is not on it
+        public int getRegionNumber(Region region) {
+            Integer regionNumber = regionNumbers.get(region);
+            return regionNumber == null ? -1 : regionNumber;
+        }
+
         public int getNumRows() {
             return numRows;
         }
@@ -326,6 +332,14 @@ public class Island {
             return numColumns;
         }
 
+        public int getOriginX() {
+            return originX;
+        }
+
+        public int getOriginY() {
+            return originY;
+        }
+
         @Override
         public Iterator<List<Region>> iterator() {
             return rowList.iterator();
@@ -338,20 +352,16 @@ public class Island {
 
                 @Override
                 public boolean hasNext() {
-                    int nextY = y + 1;
-                    int nextX = x;
-                    if (nextY >= tileSet[0].length) {
-                        nextY = 0;
-                        nextX++;
-                    }
-                    return nextX < tileSet.length && nextY < tileSet[0].length;
+                    return x < numColumns;
                 }
 
                 @Override
                 public Tile next() {
-                    Tile tile = tileSet[x][y];
+                    if (!hasNext())
+                        throw new NoSuchElementException();
+                    Tile tile = island.tileAtPoint(new GridPoint2(originX + x, originY + y));
                     y++;
-                    if (y >= tileSet[0].length) {
+                    if (y >= numRows) {
                         y = 0;
                         x++;
                     }
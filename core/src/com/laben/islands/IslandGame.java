@@ -7,21 +7,23 @@ import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
-import com.badlogic.gdx.math.GridPoint2;
 import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.scenes.scene2d.ui.Image;
 import com.badlogic.gdx.scenes.scene2d.ui.Label;
 import com.badlogic.gdx.utils.Align;
 import com.badlogic.gdx.utils.I18NBundle;
+import com.badlogic.gdx.utils.TimeUtils;
 import com.laben.islands.Screens.*;
 import com.laben.islands.Screens.GameScreen;
 import com.laben.islands.Screens.MapViewScreen;
 import com.laben.islands.items.Item;
 
-import java.util.Collection;
+import java.io.File;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Random;
+import java.util.function.Supplier;
 
 /** This Class is the main game class which manages the game and is created upon the games initialization
  * 	This class contains all information pertaining to the game's current game state
@@ -35,12 +37,17 @@ public class IslandGame extends Game {
 	private Island currentIsland;
 	private int currentLevel;
 	private AssetManager manager; //Manages all game assets
+	private AssetCache assetCache; //Keeps the assets of every screen loaded between screen switches
 	private Tile currentTile; //The current tile that the player is on
 	private Application.ApplicationType platform;
 	private Player player;
 	private boolean inputAllowed;
+	private volatile boolean streamingIslands; //Whether new levels are played on a chunked island of unlimited size
+	private IslandPreGenerator preGenerator; //Generates the islands of the next levels in the background
 	private Map<String, Class> assets;
 	private TextureAtlas atlas;
+	private GameScreen gameScreen; //Built once and kept, moving between tiles only rebinds it
+	private IslandMapTexture mapViewTexture; //The map view's map, kept while the map view itself is rebuilt
 
 	//For text boxes:
 	private InputProcessor currentInput;
@@ -61,25 +68,32 @@ public class IslandGame extends Game {
 		inputAllowed = true;
 
 		manager = new AssetManager();
+		assetCache = new AssetCache(manager);
+		mapViewTexture = new IslandMapTexture("");
 		assets = new HashMap<>();
 		assets.put("i18n/GeneralBundle", I18NBundle.class);
 		assets.put("GeneralTextures.atlas", TextureAtlas.class);
 		assets.put("Fonts/TextBox.fnt", BitmapFont.class);
-		loadAllAssets(manager, assets);
 		//create player
 		player = new Player();
+		preGenerator = new IslandPreGenerator(level -> streamingIslands ? new ChunkedIsland(level) : new Island(level));
 		initializeLevel(1);
 
 		//setScreen(new InventoryScreen(this));
-		setScreen(new com.laben.islands.Screens.GameScreen(this, getCurrentTile()));
-
-		manager.finishLoading();
-		atlas = manager.get("GeneralTextures.atlas");
-
-		//For TextBox
-		textStyle = new Label.LabelStyle();
-		textStyle.font = manager.get("Fonts/TextBox.fnt");
-		textStyle.fontColor = Color.BLACK;
+		//The general assets and the game screen's load behind a loading screen
+		Map<String, Class> startingAssets = new HashMap<>(assets);
+		startingAssets.putAll(GameScreen.getScreenAssets());
+		showWhenLoaded(startingAssets, () -> {
+			assetCache.acquire(assets);
+			atlas = manager.get("GeneralTextures.atlas");
+
+			//For TextBox
+			textStyle = new Label.LabelStyle();
+			textStyle.font = manager.get("Fonts/TextBox.fnt");
+			textStyle.fontColor = Color.BLACK;
+			gameScreen = new GameScreen(this, getCurrentTile());
+			return gameScreen;
+		});
 
 	}
 
@@ -91,44 +105,112 @@ public class IslandGame extends Game {
 
 	@Override
 	public void render () {
+		long frameStart = TimeUtils.millis();
 		super.render();
 		if (currentInput != null && (Gdx.input.justTouched() || Gdx.input.isKeyJustPressed(Input.Keys.SPACE)))
 			finishDisplayingTextBox();
+		//Spend whatever is left of the frame on loading queued assets
+		if (assetCache.isLoading()) {
+			long remaining = getFrameMillis() - TimeUtils.timeSinceMillis(frameStart);
+			if (remaining > 0)
+				assetCache.update((int)remaining);
+		}
 	}
 	
 	@Override
 	public void dispose () {
 		getScreen().dispose(); //dispose of all disposables in the current screen
-		unloadAllAssets(manager, assets.keySet());
+		if (gameScreen != null && getScreen() != gameScreen)
+			gameScreen.dispose();
+		preGenerator.shutdown();
+		mapViewTexture.dispose();
+		if (atlas != null) //The general assets are only held once the first loading screen is done
+			assetCache.release(assets.keySet());
+		assetCache.dispose();
 	}
 
-	//Sets the the player's starting position in the middle of the bottom row
+	//Sets the the player's starting position, the middle of the bottom row on a regular island
 	public void setStartingPos() {
-		int x = (getCurrentIsland().getWidth() - 1)/ 2;
-		int y = getCurrentIsland().getHeight() - 1;
-		setCurrentTile(getCurrentIsland().tileAtPoint(new GridPoint2(x, y)));
+		setCurrentTile(getCurrentIsland().tileAtPoint(getCurrentIsland().getStartingLocation()));
 	}
 
 	public void initializeLevel(int level) {
 		setCurrentLevel(level);
-		setCurrentIsland(new Island(getCurrentLevel()));
+		setCurrentIsland(preGenerator.take(getCurrentLevel()));
 		setStartingPos();
 	}
 
+	//Saves the current island, level, location and player to the given file
+	public void saveGame(File file) throws IOException {
+		IslandSnapshot.write(this, file);
+	}
+
+	//Resumes the game saved in the given file
+	public void loadGame(File file) throws IOException {
+		IslandSnapshot snapshot = IslandSnapshot.read(file);
+		player = snapshot.getPlayer();
+		setCurrentLevel(snapshot.getLevel());
+		setCurrentIsland(snapshot.getIsland());
+		setCurrentTile(getCurrentIsland().tileAtPoint(snapshot.getCurrentTileLocation()));
+		preGenerator.scheduleAfter(getCurrentLevel());
+	}
+
 	public void loadMapViewScreen() {
-		getScreen().dispose();
-		setScreen(new MapViewScreen(this));
+		showWhenLoaded(MapViewScreen.getScreenAssets(), () -> new MapViewScreen(this));
+	}
+
+	/* Switches to the screen the supplier builds, which must acquire no more than the given assets. If any of them are
+	   not loaded yet, they load in the background behind a loading screen first. The screen being replaced is disposed
+	   of, unless it is the game screen, but only once the new screen's assets are held, so that assets both screens use
+	   are never left without a holder in between and evicted */
+	public void showWhenLoaded(Map<String, Class> screenAssets, Supplier<? extends AbstractScreen> screen) {
+		Screen replaced = getScreen();
+		if (assetCache.isLoaded(screenAssets)) {
+			AbstractScreen next = screen.get();
+			disposeReplaced(replaced);
+			setScreen(next);
+		} else {
+			assetCache.request(screenAssets);
+			disposeReplaced(replaced);
+			setScreen(new LoadingScreen(this, screenAssets, screen));
+		}
+	}
+
+	//Disposes of a screen that is being switched away from. The game screen is kept
+	private void disposeReplaced(Screen screen) {
+		if (screen != null && screen != gameScreen)
+			screen.dispose();
 	}
 
+	//Shows the game screen on the current tile, disposing of the screen it replaces
 	public void loadGameScreen() {
-		getScreen().dispose();
-		setScreen(new GameScreen(this, getCurrentTile()));
+		if (gameScreen == null)
+			gameScreen = new GameScreen(this, getCurrentTile());
+		else
+			gameScreen.setTile(getCurrentTile());
+		if (getScreen() != gameScreen) {
+			if (getScreen() != null)
+				getScreen().dispose();
+			setScreen(gameScreen);
+		}
+	}
+
+	public GameScreen getGameScreen() {
+		return gameScreen;
 	}
 
 	public AssetManager getManager() {
 		return manager;
 	}
 
+	public AssetCache getAssetCache() {
+		return assetCache;
+	}
+
+	public IslandMapTexture getMapViewTexture() {
+		return mapViewTexture;
+	}
+
 	public static int getGameWidth() {
 		return GAME_WIDTH;
 	}
@@ -137,6 +219,11 @@ public class IslandGame extends Game {
 		return GAME_HEIGHT;
 	}
 
+	//The milliseconds a frame may take at the target frame rate
+	public static int getFrameMillis() {
+		return 1000 / TARGET_FPS;
+	}
+
 	public Island getCurrentIsland() {
 		return currentIsland;
 	}
@@ -155,6 +242,7 @@ public class IslandGame extends Game {
 
 	public void setCurrentTile(Tile currentTile) {
 		this.currentTile = currentTile;
+		currentTile.getIsland().moveFocus(currentTile.getCoordinates());
 	}
 
 	public Tile getCurrentTile() {
@@ -169,6 +257,24 @@ public class IslandGame extends Game {
 		return platform;
 	}
 
+	public boolean isStreamingIslands() {
+		return streamingIslands;
+	}
+
+	//Takes effect from the next level on
+	public void setStreamingIslands(boolean streamingIslands) {
+		if (this.streamingIslands == streamingIslands)
+			return;
+		preGenerator.cancel();
+		this.streamingIslands = streamingIslands;
+		//The flag is read when an island is generated, so the next level is only scheduled again once it is set
+		preGenerator.scheduleAfter(getCurrentLevel());
+	}
+
+	public IslandPreGenerator getPreGenerator() {
+		return preGenerator;
+	}
+
 	public void setDevMode(boolean on) {
 
 	}
@@ -180,23 +286,6 @@ public class IslandGame extends Game {
 		return getPlatform().equals(Application.ApplicationType.Android);
 	}
 
-	/*
-              Input an asset manager to load assets into and a map containing keys which correspond to asset file names
-              and values which correpsond to that asset's class
-            */
-	public static void loadAllAssets(AssetManager assetManager, Map<String, Class> assets) {
-		for (String asset : assets.keySet())
-			assetManager.load(asset, assets.get(asset));
-	}
-
-	/*
-		Unloads all given assets from manager
-	 */
-	public static void unloadAllAssets(AssetManager assetManager, Collection<String> assets) {
-		for (String asset : assets)
-			assetManager.unload(asset);
-	}
-
 	public boolean isInputAllowed() {
 		return inputAllowed;
 	}
@@ -0,0 +1,127 @@
+package com.laben.islands;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.IntFunction;
+
+/** Generates the islands of the levels after the current one on a background thread, so that moving on to the next
+ * level only has to hand over an island that is already finished. Whenever a level is taken, the levels following it
+ * are scheduled and anything scheduled for other levels (after a jump with setlevel, for example) is cancelled.
+ * Only the thread that takes islands may call into this class; islands themselves are generated on the worker.
+ */
+public class IslandPreGenerator {
+
+    public static final int DEFAULT_DEPTH = 1; //The number of levels generated ahead of the current one
+
+    private final IntFunction<Island> islandFactory; //Generates the island of a level. Must be safe to call off-thread
+    private final int depth;
+    private final ExecutorService executor;
+    private final Map<Integer, Future<Island>> scheduled; //Level -> island being generated for it
+    private int hits; //Islands that were finished when they were needed
+    private int waits; //Islands that were still being generated when they were needed
+    private int misses; //Islands that were not scheduled and had to be generated on the spot
+    private int cancellations;
+
+    public IslandPreGenerator(IntFunction<Island> islandFactory) {
+        this(islandFactory, DEFAULT_DEPTH);
+    }
+
+    public IslandPreGenerator(IntFunction<Island> islandFactory, int depth) {
+        this.islandFactory = islandFactory;
+        this.depth = depth;
+        scheduled = new HashMap<>();
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Island pre-generator");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    //Returns the island of the given level, then starts generating the levels after it
+    public Island take(int level) {
+        Island island = null;
+        Future<Island> future = scheduled.remove(level);
+        if (future != null) {
+            boolean done = future.isDone();
+            try {
+                island = future.get();
+                if (done)
+                    hits++;
+                else waits++;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException | CancellationException e) {
+                //Generate it again below
+            }
+        }
+        if (island == null) {
+            misses++;
+            island = islandFactory.apply(level);
+        }
+        scheduleAfter(level);
+        return island;
+    }
+
+    //Cancels every island scheduled so far, for example because the way islands are generated changed
+    public void cancel() {
+        for (Future<Island> future : scheduled.values()) {
+            future.cancel(false);
+            cancellations++;
+        }
+        scheduled.clear();
+    }
+
+    //Cancels everything and stops the worker thread
+    public void shutdown() {
+        cancel();
+        executor.shutdownNow();
+    }
+
+    public int getHits() {
+        return hits;
+    }
+
+    public int getWaits() {
+        return waits;
+    }
+
+    public int getMisses() {
+        return misses;
+    }
+
+    public int getCancellations() {
+        return cancellations;
+    }
+
+    //The fraction of islands taken which were already finished, 0 if none were taken yet
+    public double getHitRate() {
+        int taken = hits + waits + misses;
+        return taken == 0 ? 0 : (double)hits / taken;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "hits: %d, waits: %d, misses: %d, cancelled: %d, hit rate: %.2f",
+                hits, waits, misses, cancellations, getHitRate());
+    }
+
+    //Schedules the next depth levels after the given one and cancels anything scheduled for other levels
+    public void scheduleAfter(int level) {
+        Iterator<Map.Entry<Integer, Future<Island>>> iterator = scheduled.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Integer, Future<Island>> entry = iterator.next();
+            if (entry.getKey() <= level || entry.getKey() > level + depth) {
+                entry.getValue().cancel(false);
+                cancellations++;
+                iterator.remove();
+            }
+        }
+        for (int nextLevel = level + 1; nextLevel <= level + depth; nextLevel++) {
+            if (!scheduled.containsKey(nextLevel)) {
+                final int levelToGenerate = nextLevel;
+                scheduled.put(nextLevel, executor.submit(() -> islandFactory.apply(levelToGenerate)));
+            }
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package com.laben.islands;
+
+import com.badlogic.gdx.math.GridPoint2;
+import com.laben.islands.items.Item;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/** A saved game: the current island, the level, the tile the player is on and the player's state. Snapshots are
+ * written to a compact, versioned binary file through a FileChannel and loaded by reading that file into a single
+ * buffer. A loaded island reads the contents of its tiles straight out of that buffer the first time they are needed,
+ * so resuming a large island costs about as much as copying its numeric map rather than generating it again.
+ *
+ * Layout (big-endian). Strings are stored as an unsigned short length followed by that many UTF-8 bytes:
+ *   header:  magic, version (short), kind (byte), level, seed (long), width, height, current tile x and y,
+ *            treasure x and y, generation repairs, generation fragments
+ *   player:  max stamina, stamina, number of items in the bag, then each item's name key and quantity in bag order
+ *   regular islands only:
+ *   regions: highest region number, then for every number a presence byte followed by the terrain and region names
+ *   map:     width * height region numbers in tile index order (x * height + y)
+ *   tiles:   width * height * 49 graphics item ordinals, width * height * 4 + 1 tree offsets (the first tree of every
+ *            corner of every tile, then the total number of trees) and the x, y pair of every tree
+ * Chunked islands regenerate every chunk from their seed, so only their header and the player are stored.
+ */
+public class IslandSnapshot {
+
+    public static final int MAGIC = 0x49534c53; //"ISLS"
+    public static final short VERSION = 2;
+    private static final byte KIND_REGULAR = 0;
+    private static final byte KIND_CHUNKED = 1;
+    private static final int HEADER_SIZE = 4 + 2 + 1 + 4 + 8 + 4 * 8;
+    private static final int GRAPHICS_ITEMS_PER_TILE = TileStore.GRAPHICS_TABLE_SIDE * TileStore.GRAPHICS_TABLE_SIDE;
+
+    private final Island island;
+    private final int level;
+    private final GridPoint2 currentTileLocation;
+    private final Player player;
+
+    private IslandSnapshot(Island island, int level, GridPoint2 currentTileLocation, Player player) {
+        this.island = island;
+        this.level = level;
+        this.currentTileLocation = currentTileLocation;
+        this.player = player;
+    }
+
+    public Island getIsland() {
+        return island;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public GridPoint2 getCurrentTileLocation() {
+        return currentTileLocation;
+    }
+
+    public Player getPlayer() {
+        return player;
+    }
+
+    //Writes the current state of the game to the given file, replacing it if it exists
+    public static void write(IslandGame game, File file) throws IOException {
+        write(game.getCurrentIsland(), game.getCurrentLevel(), game.getCurrentTile().getCoordinates(),
+                game.getPlayer(), file);
+    }
+
+    public static void write(Island island, int level, GridPoint2 currentTileLocation, Player player, File file)
+            throws IOException {
+        boolean chunked = island instanceof ChunkedIsland;
+        ByteBuffer playerData = encodedPlayer(player);
+        ByteBuffer islandData = chunked ? ByteBuffer.allocate(0) : encodedIsland(island);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putShort(VERSION).put(chunked ? KIND_CHUNKED : KIND_REGULAR).putInt(level)
+                .putLong(island.getSeed()).putInt(island.getWidth()).putInt(island.getHeight())
+                .putInt(currentTileLocation.x).putInt(currentTileLocation.y)
+                .putInt(island.getTreasureLocation().x).putInt(island.getTreasureLocation().y)
+                .putInt(island.getGenerationRepairs()).putInt(island.getGenerationFragments());
+        header.flip();
+        //RandomAccessFile rather than java.nio.file, which Android only has from API 26 on
+        try (RandomAccessFile output = new RandomAccessFile(file, "rw")) {
+            output.setLength(0);
+            FileChannel channel = output.getChannel();
+            ByteBuffer[] buffers = {header, playerData, islandData};
+            long remaining = header.remaining() + playerData.remaining() + islandData.remaining();
+            while (remaining > 0)
+                remaining -= channel.write(buffers);
+        }
+    }
+
+    //Loads the snapshot in the given file
+    public static IslandSnapshot read(File file) throws IOException {
+        /* Read onto the heap rather than mapped: a loaded island keeps reading its tiles out of this buffer, and a
+         * mapping would break as soon as the game is saved back to the same file */
+        ByteBuffer buffer;
+        try (RandomAccessFile input = new RandomAccessFile(file, "r")) {
+            FileChannel channel = input.getChannel();
+            buffer = ByteBuffer.allocate((int)channel.size());
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0)
+                    throw new IOException("Truncated island snapshot: " + file);
+            }
+            buffer.flip();
+        }
+        try {
+            return decoded(buffer);
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupt island snapshot: " + file, e);
+        }
+    }
+
+    private static IslandSnapshot decoded(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC)
+            throw new IOException("Not an island snapshot");
+        short version = buffer.getShort();
+        if (version != VERSION)
+            throw new IOException("Unsupported island snapshot version: " + version);
+        byte kind = buffer.get();
+        int level = buffer.getInt();
+        long seed = buffer.getLong();
+        int width = buffer.getInt();
+        int height = buffer.getInt();
+        GridPoint2 currentTileLocation = new GridPoint2(buffer.getInt(), buffer.getInt());
+        GridPoint2 treasureLocation = new GridPoint2(buffer.getInt(), buffer.getInt());
+        int generationRepairs = buffer.getInt();
+        int generationFragments = buffer.getInt();
+        Player player = decodedPlayer(buffer);
+
+        Island island;
+        if (kind == KIND_CHUNKED) {
+            island = new ChunkedIsland(seed, level);
+            island.changeTreasureLocation(treasureLocation);
+        } else if (kind == KIND_REGULAR) {
+            island = decodedIsland(buffer, new GenerationContext(seed, level), width, height, treasureLocation,
+                    generationRepairs, generationFragments);
+        } else {
+            throw new IOException("Unknown island kind: " + kind);
+        }
+        return new IslandSnapshot(island, level, currentTileLocation, player);
+    }
+
+    private static ByteBuffer encodedPlayer(Player player) {
+        List<byte[]> names = new ArrayList<>();
+        int size = 4 * 3;
+        for (Item item : player.getInventoryInBag()) {
+            byte[] name = item.getNameKey().getBytes(StandardCharsets.UTF_8);
+            names.add(name);
+            size += 2 + name.length + 4;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(player.getMaxStamina()).putInt(player.getStamina()).putInt(names.size());
+        Iterator<byte[]> nameIterator = names.iterator();
+        for (Item item : player.getInventoryInBag()) {
+            putString(buffer, nameIterator.next());
+            buffer.putInt(player.getInventory().get(item));
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static Player decodedPlayer(ByteBuffer buffer) throws IOException {
+        Player player = new Player();
+        player.setMaxStamina(buffer.getInt());
+        player.setStamina(buffer.getInt());
+        int numItems = buffer.getInt();
+        Map<String, Item> itemsByName = new HashMap<>();
+        for (Item item : Item.masterItemSet)
+            itemsByName.put(item.getNameKey(), item);
+        for (int i = 0; i < numItems; i++) {
+            String name = getString(buffer);
+            Item item = itemsByName.get(name);
+            if (item == null)
+                throw new IOException("Unknown item in island snapshot: " + name);
+            player.addItemToInventory(item, buffer.getInt());
+        }
+        return player;
+    }
+
+    private static ByteBuffer encodedIsland(Island island) {
+        int width = island.getWidth();
+        int height = island.getHeight();
+        int numTiles = width * height;
+        int[][] numMap = island.getIterableRegionMap().getNumericalMap();
+        Map<Integer, Region> regionIntegerConversionChart = island.getIterableRegionMap()
+                .getRegionIntegerConversionChart();
+        //Regions
+        int maxRegion = 0;
+        for (Integer region : regionIntegerConversionChart.keySet())
+            maxRegion = Math.max(maxRegion, region);
+        byte[][] terrainNames = new byte[maxRegion + 1][];
+        byte[][] regionNames = new byte[maxRegion + 1][];
+        int regionsSize = 4;
+        for (int region = 1; region <= maxRegion; region++) {
+            Region value = regionIntegerConversionChart.get(region);
+            regionsSize++;
+            if (value != null) {
+                terrainNames[region] = value.getTerrain().toString().getBytes(StandardCharsets.UTF_8);
+                regionNames[region] = value.getName().getBytes(StandardCharsets.UTF_8);
+                regionsSize += 2 + terrainNames[region].length + 2 + regionNames[region].length;
+            }
+        }
+        //Tile contents, read one tile at a time so every tile is generated at most once
+        byte[] graphicsItems = new byte[numTiles * GRAPHICS_ITEMS_PER_TILE];
+        int[] treeOffsets = new int[numTiles * TileStore.NUM_CORNERS + 1];
+        float[] treePositions = new float[numTiles * 8];
+        int numTrees = 0;
+        GridPoint2 point = new GridPoint2();
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                int index = x * height + y;
+                Tile tile = island.tileAtPoint(point.set(x, y));
+                for (int row = 0; row < TileStore.GRAPHICS_TABLE_SIDE; row++) {
+                    for (int column = 0; column < TileStore.GRAPHICS_TABLE_SIDE; column++) {
+                        graphicsItems[index * GRAPHICS_ITEMS_PER_TILE + row * TileStore.GRAPHICS_TABLE_SIDE +
+                                column] = (byte)tile.getGraphicsItem(row, column).ordinal();
+                    }
+                }
+                Tile.Trees trees = tile.getTrees();
+                for (int corner = 0; corner < TileStore.NUM_CORNERS; corner++) {
+                    treeOffsets[index * TileStore.NUM_CORNERS + corner] = numTrees;
+                    for (int tree = 0; tree < trees.getNumTrees(corner); tree++) {
+                        if (treePositions.length < (numTrees + 1) * 2)
+                            treePositions = Arrays.copyOf(treePositions, treePositions.length * 2);
+                        treePositions[numTrees * 2] = trees.getTreeX(corner, tree);
+                        treePositions[numTrees * 2 + 1] = trees.getTreeY(corner, tree);
+                        numTrees++;
+                    }
+                }
+            }
+        }
+        treeOffsets[numTiles * TileStore.NUM_CORNERS] = numTrees;
+
+        ByteBuffer buffer = ByteBuffer.allocate(regionsSize + 4 * numTiles + graphicsItems.length +
+                4 * treeOffsets.length + 4 * 2 * numTrees);
+        buffer.putInt(maxRegion);
+        for (int region = 1; region <= maxRegion; region++) {
+            buffer.put((byte)(terrainNames[region] != null ? 1 : 0));
+            if (terrainNames[region] != null) {
+                putString(buffer, terrainNames[region]);
+                putString(buffer, regionNames[region]);
+            }
+        }
+        IntBuffer regionIds = buffer.asIntBuffer();
+        for (int[] column : numMap)
+            regionIds.put(column);
+        buffer.position(buffer.position() + 4 * numTiles);
+        buffer.put(graphicsItems);
+        buffer.asIntBuffer().put(treeOffsets);
+        buffer.position(buffer.position() + 4 * treeOffsets.length);
+        buffer.asFloatBuffer().put(treePositions, 0, numTrees * 2);
+        buffer.position(buffer.position() + 4 * 2 * numTrees);
+        buffer.flip();
+        return buffer;
+    }
+
+    private static Island decodedIsland(ByteBuffer buffer, GenerationContext context, int width, int height,
+                                        GridPoint2 treasureLocation, int generationRepairs,
+                                        int generationFragments) throws IOException {
+        int numTiles = width * height;
+        //Regions
+        Map<String, Terrain> terrainsByName = new HashMap<>();
+        for (Terrain terrain : Terrain.TERRAIN_SET)
+            terrainsByName.put(terrain.toString(), terrain);
+        int maxRegion = buffer.getInt();
+        Map<Integer, Region> regionIntegerConversionChart = new HashMap<>();
+        for (int region = 1; region <= maxRegion; region++) {
+            if (buffer.get() == 0)
+                continue;
+            String terrainName = getString(buffer);
+            Terrain terrain = terrainsByName.get(terrainName);
+            if (terrain == null)
+                throw new IOException("Unknown terrain in island snapshot: " + terrainName);
+            regionIntegerConversionChart.put(region, new Region(region, getString(buffer), terrain));
+        }
+        //Map
+        int[][] numMap = new int[width][height];
+        IntBuffer regionIds = buffer.asIntBuffer();
+        for (int[] column : numMap)
+            regionIds.get(column);
+        buffer.position(buffer.position() + 4 * numTiles);
+        //Tile contents stay in the snapshot's buffer, only views onto it are kept
+        ByteBuffer graphicsItems = slice(buffer, numTiles * GRAPHICS_ITEMS_PER_TILE);
+        IntBuffer treeOffsets = slice(buffer, 4 * (numTiles * TileStore.NUM_CORNERS + 1)).asIntBuffer();
+        FloatBuffer treePositions = slice(buffer, 4 * 2 * treeOffsets.get(numTiles * TileStore.NUM_CORNERS))
+                .asFloatBuffer();
+
+        TileStore tileStore = new TileStore(numMap, regionIntegerConversionChart, context, graphicsItems,
+                treeOffsets, treePositions);
+        tileStore.setHasTreasure(tileStore.indexOf(treasureLocation.x, treasureLocation.y), true);
+        return new Island(context, numMap, regionIntegerConversionChart, tileStore, treasureLocation,
+                generationRepairs, generationFragments);
+    }
+
+    //Returns a view of the next length bytes of the buffer and moves past them
+    private static ByteBuffer slice(ByteBuffer buffer, int length) {
+        ByteBuffer slice = buffer.slice();
+        slice.limit(length);
+        buffer.position(buffer.position() + length);
+        return slice;
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] string) {
+        buffer.putShort((short)string.length);
+        buffer.put(string);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        byte[] string = new byte[buffer.getShort() & 0xffff];
+        buffer.get(string);
+        return new String(string, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,85 @@
+package com.laben.islands;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/** Labels cells with the jump flooding algorithm. Every site starts in its own cell, then each pass lets a cell adopt
+ * the site of any of its 8 neighbours at distance step if that site is closer, halving step each pass. A final pass
+ * with step 1 fixes the rare cells that the halving passes got wrong. The work done is independent of the number of
+ * sites, which makes this the engine of choice for large islands.
+ */
+public class JumpFloodVoronoiEngine implements VoronoiEngine {
+
+    @Override
+    public void label(int width, int height, int[] siteX, int[] siteY, int[] labels, SplittableRandom random) {
+        int[] source = labels;
+        int[] target = new int[labels.length];
+        Arrays.fill(source, 0);
+        for (int i = 0; i < siteX.length; i++)
+            source[siteX[i] * height + siteY[i]] = i + 1;
+
+        int[] tiedSites = new int[9]; //Distinct sites tied for closest during the current pass
+        int step = Integer.highestOneBit(Math.max(Math.max(width, height) - 1, 1));
+        boolean finalPass = false;
+        while (true) {
+            floodPass(width, height, step, siteX, siteY, source, target, tiedSites, random);
+            int[] swap = source;
+            source = target;
+            target = swap;
+            if (finalPass)
+                break;
+            if (step == 1)
+                finalPass = true;
+            else
+                step /= 2;
+        }
+        if (source != labels)
+            System.arraycopy(source, 0, labels, 0, labels.length);
+    }
+
+    //Writes into target the closest site found among the cell and its neighbours at the given step in source
+    private static void floodPass(int width, int height, int step, int[] siteX, int[] siteY, int[] source,
+                                  int[] target, int[] tiedSites, SplittableRandom random) {
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                int closest = 0;
+                int closestDistance = Integer.MAX_VALUE;
+                int ties = 0;
+                int minX = x - step >= 0 ? x - step : x;
+                int maxX = x + step < width ? x + step : x;
+                int minY = y - step >= 0 ? y - step : y;
+                int maxY = y + step < height ? y + step : y;
+                for (int nx = minX; nx <= maxX; nx += step) {
+                    int column = nx * height;
+                    for (int ny = minY; ny <= maxY; ny += step) {
+                        int site = source[column + ny];
+                        if (site == 0)
+                            continue;
+                        int dx = x - siteX[site - 1];
+                        int dy = y - siteY[site - 1];
+                        int distance = dx * dx + dy * dy;
+                        if (distance < closestDistance) {
+                            closestDistance = distance;
+                            closest = site;
+                            tiedSites[0] = site;
+                            ties = 1;
+                        } else if (distance == closestDistance && !contains(tiedSites, ties, site)) {
+                            tiedSites[ties++] = site;
+                            if (random.nextInt(ties) == 0)
+                                closest = site;
+                        }
+                    }
+                }
+                target[x * height + y] = closest;
+            }
+        }
+    }
+
+    private static boolean contains(int[] values, int length, int value) {
+        for (int i = 0; i < length; i++) {
+            if (values[i] == value)
+                return true;
+        }
+        return false;
+    }
+}
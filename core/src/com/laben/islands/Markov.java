@@ -1,32 +1,108 @@
 package com.laben.islands;
 
 import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.GdxRuntimeException;
 
-import java.io.FileNotFoundException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
 import java.util.*;
 
 /** A class designed to have methods dealing with generating Markov chains
  * An instance of this class represents a Markov chain from a given table of words. From there names can be pulled
- * out using Markov chain logic with the table as a reference.
+ * out using Markov chain logic with the table as a reference. Chains can also be compiled ahead of time into a binary
+ * model file holding several named tables, which loads without reading or splitting any words (see MarkovCompiler).
  */
 public class Markov {
 
+    public static final int COMPILED_MAGIC = 0x4d4b5631; //"MKV1"
+    public static final short COMPILED_VERSION = 1;
+    private static final int MAX_FAILED_ATTEMPTS = 10000; //Repeated values in a row before a chain counts as exhausted
+
     private final MarkovTable table; //The table representing probabilities
     private final int maxLength;
     private final int order;
-    private final Random random;
+    private final SplittableRandom random;
 
     /*Input the file name to read from which should be located in the internal assets folder and the order
     * as well as the maximum length the generated word can be*/
     public Markov(String fileName, int order, int maxLength) {
-        try {
-            random = new Random();
-            table = new MarkovTable(fileName, order);
-            this.order = order;
-            this.maxLength = maxLength;
-        } catch (FileNotFoundException e) {
+        this(corpusWords(fileName), order, maxLength);
+    }
+
+    //Input the words to build the chain from, the order and the maximum length the generated word can be
+    public Markov(String[] words, int order, int maxLength) {
+        this(new MarkovTable(words, order), maxLength);
+    }
+
+    private Markov(MarkovTable table, int maxLength) {
+        random = new SplittableRandom();
+        this.table = table;
+        order = table.order;
+        this.maxLength = maxLength;
+    }
+
+    /* Loads every chain of a compiled model file located in the internal assets folder, by name. The file is mapped
+     * into memory where the platform allows it. Every chain generates words of at most maxLength characters */
+    public static Map<String, Markov> loadCompiled(String fileName, int maxLength) {
+        FileHandle file = Gdx.files.internal(fileName);
+        if (!file.exists())
             throw new RuntimeException("File Not Found Exception");
+        ByteBuffer buffer;
+        try {
+            buffer = file.map();
+        } catch (GdxRuntimeException e) {
+            //Compressed or packed files can not be mapped
+            buffer = ByteBuffer.wrap(file.readBytes());
+        }
+        buffer.order(ByteOrder.BIG_ENDIAN); //Mapped files come back in native order
+        if (buffer.getInt() != COMPILED_MAGIC)
+            throw new RuntimeException("Not a compiled Markov model: " + fileName);
+        short version = buffer.getShort();
+        if (version != COMPILED_VERSION)
+            throw new RuntimeException("Unsupported compiled Markov model version: " + version);
+        int numChains = buffer.getInt();
+        Map<String, Markov> chains = new LinkedHashMap<>();
+        for (int i = 0; i < numChains; i++) {
+            char[] name = new char[buffer.getShort()];
+            buffer.asCharBuffer().get(name);
+            buffer.position(buffer.position() + 2 * name.length);
+            chains.put(new String(name), new Markov(new MarkovTable(buffer), maxLength));
         }
+        return chains;
+    }
+
+    //Writes the tables of the given chains, by name, into a single compiled model file
+    public static void writeCompiled(Map<String, Markov> chains, File file) throws IOException {
+        int size = 4 + 2 + 4;
+        for (Map.Entry<String, Markov> chain : chains.entrySet())
+            size += 2 + 2 * chain.getKey().length() + chain.getValue().table.getCompiledSize();
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(COMPILED_MAGIC).putShort(COMPILED_VERSION).putInt(chains.size());
+        for (Map.Entry<String, Markov> chain : chains.entrySet()) {
+            buffer.putShort((short)chain.getKey().length());
+            for (char character : chain.getKey().toCharArray())
+                buffer.putChar(character);
+            chain.getValue().table.write(buffer);
+        }
+        buffer.flip();
+        try (RandomAccessFile output = new RandomAccessFile(file, "rw")) {
+            output.setLength(0);
+            FileChannel channel = output.getChannel();
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+        }
+    }
+
+    //Reads the words of a corpus located in the internal assets folder
+    private static String[] corpusWords(String fileName) {
+        if (!Gdx.files.internal(fileName).exists())
+            throw new RuntimeException("File Not Found Exception");
+        return Gdx.files.internal(fileName).readString().split("\\s+");
     }
 
     public int getMaxLength() {
@@ -37,60 +113,168 @@ public class Markov {
         return order;
     }
 
+    //The number of bytes taken up by the arrays of the table
+    public long getSizeInBytes() {
+        return table.getSizeInBytes();
+    }
+
     //Returns the next randomized String generated using Markov chains
     public String nextValue() {
-        //Start with a randomized starting value
-        StringBuilder word = new StringBuilder(table.startingValues().get(random.nextInt(table.startingValues().size())));
-        while (word.length() < getMaxLength()) {
-            List<String> possibleValues = table.possibleValues(word.substring(word.length() - order, word.length()));
-            if (possibleValues == null)
-                return word.toString();
-            word.append(possibleValues.get(random.nextInt(possibleValues.size())));
-        }
-        return word.toString();
+        return nextValue(random);
     }
 
+    //Returns the next String generated using Markov chains, drawing from the given random stream
+    public String nextValue(SplittableRandom random) {
+        char[] word = new char[Math.max(maxLength, order)];
+        return new String(word, 0, table.generate(word, maxLength, random));
+    }
 
-    //A class to represent the table of markov probabilities
-    private static class MarkovTable {
-        private final Map<String, List<String>> table;
-
-        //Input the filename and the order
-        MarkovTable(String fileName, int order) throws FileNotFoundException{
-            if (!Gdx.files.internal(fileName).exists())
-                throw new FileNotFoundException("Specified file does not exist");
-            final String[] words = Gdx.files.internal(fileName).readString().split("\\s+");
-            //Create Table
-            table = generatedTable(words, order);
+    /* Returns count distinct Strings generated using Markov chains, in the order they were generated. Throws an
+     * IllegalStateException if the chain keeps repeating itself, which means it has (nearly) run out of values */
+    public List<String> nextValues(int count, SplittableRandom random) {
+        Set<String> values = new HashSet<>(count * 4 / 3 + 1);
+        List<String> orderedValues = new ArrayList<>(count);
+        char[] word = new char[Math.max(maxLength, order)];
+        int failedAttempts = 0;
+        while (orderedValues.size() < count) {
+            String value = new String(word, 0, table.generate(word, maxLength, random));
+            if (values.add(value)) {
+                orderedValues.add(value);
+                failedAttempts = 0;
+            } else if (++failedAttempts > MAX_FAILED_ATTEMPTS) {
+                throw new IllegalStateException("Markov chain ran out of distinct values after " +
+                        orderedValues.size() + " of " + count);
+            }
         }
+        return orderedValues;
+    }
 
-        //Returns null if no such entry
-        List<String> possibleValues(String key) {
-            return table.get(key);
-        }
 
-        //Returns the set of starting values
-        List<String> startingValues() {
-           return new ArrayList<>(table.keySet());
-        }
+    /* A table of Markov probabilities compiled into flat arrays. Every context (a run of order characters followed by
+     * at least one more character somewhere in the words) is interned to an int id. The distinct characters that may
+     * follow a context are stored next to each other along with the running total of how often they were seen, and
+     * the id of the context formed by appending each of them, so generating a word only walks arrays */
+    private static class MarkovTable {
+        private final int order;
+        private final char[] contextCharacters; //The characters of context i at [i * order, (i + 1) * order)
+        private final int[] successorOffsets; //The successors of context i at [successorOffsets[i], [i + 1])
+        private final char[] successorCharacters;
+        private final int[] cumulativeCounts; //Times this or an earlier successor of the same context was seen
+        private final int[] nextContexts; //The context formed by appending the successor, -1 if it has no successors
 
-        private static Map<String, List<String>> generatedTable(String[] words, int order) {
-            Map<String, List<String>> mTable = new HashMap<>();
-            //Iterate through every word in the given array of words
+        //Input the words and the order
+        MarkovTable(String[] words, int order) {
+            this.order = order;
+            //Count how often every character follows every context, keeping contexts in order of first appearance
+            Map<String, Integer> contextIds = new HashMap<>();
+            List<String> contexts = new ArrayList<>();
+            List<Map<Character, Integer>> successorCounts = new ArrayList<>();
             for (String word : words) {
                 //If word is the size of the order or smaller, it's useless
-                if (word.length() > order) {
-                    //Add to table
-                    for (int i = 0; i < word.length() - order; i++) {
-                        String key = word.substring(i, i + order).toLowerCase();
-                        //If this entry to the map doesn't exist, create a new entry
-                        if (!mTable.containsKey(key))
-                            mTable.put(key, new ArrayList<String>((int)Math.pow(26, order)));
-                        mTable.get(key).add(Character.toString(word.charAt(i + order)).toLowerCase());
+                String lowerCaseWord = word.toLowerCase();
+                for (int i = 0; i + order < lowerCaseWord.length(); i++) {
+                    String context = lowerCaseWord.substring(i, i + order);
+                    Integer id = contextIds.get(context);
+                    if (id == null) {
+                        id = contexts.size();
+                        contextIds.put(context, id);
+                        contexts.add(context);
+                        successorCounts.add(new LinkedHashMap<Character, Integer>());
                     }
+                    successorCounts.get(id).merge(lowerCaseWord.charAt(i + order), 1, Integer::sum);
                 }
             }
-            return mTable;
+            //Flatten everything into arrays
+            int numContexts = contexts.size();
+            contextCharacters = new char[numContexts * order];
+            successorOffsets = new int[numContexts + 1];
+            int numSuccessors = 0;
+            for (int id = 0; id < numContexts; id++) {
+                contexts.get(id).getChars(0, order, contextCharacters, id * order);
+                successorOffsets[id] = numSuccessors;
+                numSuccessors += successorCounts.get(id).size();
+            }
+            successorOffsets[numContexts] = numSuccessors;
+            successorCharacters = new char[numSuccessors];
+            cumulativeCounts = new int[numSuccessors];
+            nextContexts = new int[numSuccessors];
+            for (int id = 0; id < numContexts; id++) {
+                int successor = successorOffsets[id];
+                int total = 0;
+                for (Map.Entry<Character, Integer> entry : successorCounts.get(id).entrySet()) {
+                    total += entry.getValue();
+                    successorCharacters[successor] = entry.getKey();
+                    cumulativeCounts[successor] = total;
+                    Integer next = contextIds.get(contexts.get(id).substring(1) + entry.getKey());
+                    nextContexts[successor] = next == null ? -1 : next;
+                    successor++;
+                }
+            }
+        }
+
+        /* Reads a table written by write. Layout: order, number of contexts, number of successors, then the arrays in
+         * the order they are declared */
+        MarkovTable(ByteBuffer buffer) {
+            order = buffer.getInt();
+            int numContexts = buffer.getInt();
+            int numSuccessors = buffer.getInt();
+            contextCharacters = new char[numContexts * order];
+            successorOffsets = new int[numContexts + 1];
+            successorCharacters = new char[numSuccessors];
+            cumulativeCounts = new int[numSuccessors];
+            nextContexts = new int[numSuccessors];
+            buffer.asCharBuffer().get(contextCharacters);
+            buffer.position(buffer.position() + 2 * contextCharacters.length);
+            buffer.asIntBuffer().get(successorOffsets);
+            buffer.position(buffer.position() + 4 * successorOffsets.length);
+            buffer.asCharBuffer().get(successorCharacters);
+            buffer.position(buffer.position() + 2 * successorCharacters.length);
+            buffer.asIntBuffer().get(cumulativeCounts);
+            buffer.position(buffer.position() + 4 * cumulativeCounts.length);
+            buffer.asIntBuffer().get(nextContexts);
+            buffer.position(buffer.position() + 4 * nextContexts.length);
+        }
+
+        void write(ByteBuffer buffer) {
+            buffer.putInt(order).putInt(successorOffsets.length - 1).putInt(successorCharacters.length);
+            buffer.asCharBuffer().put(contextCharacters);
+            buffer.position(buffer.position() + 2 * contextCharacters.length);
+            buffer.asIntBuffer().put(successorOffsets);
+            buffer.position(buffer.position() + 4 * successorOffsets.length);
+            buffer.asCharBuffer().put(successorCharacters);
+            buffer.position(buffer.position() + 2 * successorCharacters.length);
+            buffer.asIntBuffer().put(cumulativeCounts);
+            buffer.position(buffer.position() + 4 * cumulativeCounts.length);
+            buffer.asIntBuffer().put(nextContexts);
+            buffer.position(buffer.position() + 4 * nextContexts.length);
+        }
+
+        int getCompiledSize() {
+            return 4 * 3 + (int)getSizeInBytes();
+        }
+
+        /* Writes a random word of at most maxLength characters (but at least order) into the start of the buffer and
+         * returns its length. Every context is an equally likely start */
+        int generate(char[] word, int maxLength, SplittableRandom random) {
+            int context = random.nextInt(successorOffsets.length - 1);
+            System.arraycopy(contextCharacters, context * order, word, 0, order);
+            int length = order;
+            while (length < maxLength && context != -1) {
+                int first = successorOffsets[context];
+                int last = successorOffsets[context + 1] - 1;
+                int pick = random.nextInt(cumulativeCounts[last]);
+                int successor = first;
+                while (cumulativeCounts[successor] <= pick)
+                    successor++;
+                word[length++] = successorCharacters[successor];
+                context = nextContexts[successor];
+            }
+            return length;
+        }
+
+        long getSizeInBytes() {
+            return 2L * contextCharacters.length + 4L * successorOffsets.length + 2L * successorCharacters.length +
+                    4L * cumulativeCounts.length + 4L * nextContexts.length;
         }
     }
 }
@@ -0,0 +1,43 @@
+package com.laben.islands;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/** Compiles word corpora into a single binary Markov model file which Markov.loadCompiled reads back, so the game does
+ * not have to build its chains from text every time it starts. Run by the compileNameModels task from the assets
+ * folder. Corpus files are read straight from disk, so no libGDX backend has to be running.
+ *
+ * Arguments: output file, order, then one name=corpus file pair per chain
+ */
+public class MarkovCompiler {
+
+    public static void main(String[] arg) throws IOException {
+        if (arg.length < 3)
+            throw new IllegalArgumentException("Expected: output order name=corpus [name=corpus ...]");
+        File output = new File(arg[0]);
+        int order = Integer.parseInt(arg[1]);
+        Map<String, Markov> chains = new LinkedHashMap<>();
+        for (int i = 2; i < arg.length; i++) {
+            String[] pair = arg[i].split("=", 2);
+            if (pair.length != 2)
+                throw new IllegalArgumentException("Expected name=corpus, got: " + arg[i]);
+            String corpus = readCorpus(new File(pair[1]));
+            //The maximum length is not part of the compiled table, whoever loads it picks their own
+            chains.put(pair[0], new Markov(corpus.split("\\s+"), order, order));
+        }
+        Markov.writeCompiled(chains, output);
+        System.out.println("Compiled " + chains.size() + " chain(s) of order " + order + " into " + output + " (" +
+                output.length() + " bytes)");
+    }
+
+    private static String readCorpus(File file) throws IOException {
+        try (RandomAccessFile input = new RandomAccessFile(file, "r")) {
+            byte[] bytes = new byte[(int)input.length()];
+            input.readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -2,15 +2,21 @@ package com.laben.islands;
 
 import java.util.*;
 
-/** This represents a region which has a specialized name and a specific terrain **/
+/** This represents a region which has a specialized name and a specific terrain. Every region gets an int id when it is
+ * generated, unique within its island, and is only ever equal to itself **/
 public class Region {
-    private static final String REGION_NAMES_FILE = "Text_Databases/Region_Prefixes.txt";
-    private static final Markov REGION_NAME_MARKOV = new Markov(REGION_NAMES_FILE, 3, 10);
+    /* Compiled from the corpora in Text_Databases by the compileNameModels task. A terrain can have a chain of its own
+    * under its lower case name, otherwise it uses the default chain */
+    private static final String REGION_NAMES_FILE = "Text_Databases/Region_Names.markov";
+    private static final String DEFAULT_CHAIN = "default";
+    private static final Map<String, Markov> REGION_NAME_MARKOVS = Markov.loadCompiled(REGION_NAMES_FILE, 10);
 
+    private final int id;
     private final Terrain terrain; //the regions terrain
     private final String name; //the name that comes before the terrain
 
-    public Region(String name, Terrain terrain) {
+    public Region(int id, String name, Terrain terrain) {
+        this.id = id;
         this.name = name;
         this.terrain = terrain;
     }
@@ -20,54 +26,66 @@ public class Region {
         return name + " " + terrain.toString();
     }
 
+    public int getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
     public Terrain getTerrain() {
         return terrain;
     }
 
     @Override
     public boolean equals(Object o) {
-        return o instanceof Region && o.toString().equals(this.toString());
+        return this == o;
     }
 
     @Override
     public int hashCode() {
-        return this.toString().hashCode();
+        return id;
     }
 
-    /* Given: The level, a list of regions in order descending order of size, and a map marking region adjacencies,
-    * Returns a Map designating a specific region to each numerical value */
-    public static Map<Integer, Region> generatedRegions(int level, List<Integer> orderedRegions, Map<Integer,
-            Set<Integer>> regionAdjacencies) {
+    /* Given: A list of regions in descending order of size, the terrain of each region and the random stream to draw
+    * from, Returns a Map designating a specific region to each numerical value, which also becomes the region's id. No
+    * two regions of the same terrain share a name */
+    public static Map<Integer, Region> generatedRegions(List<Integer> orderedRegions, Map<Integer, Terrain> terrains,
+                                                        SplittableRandom random) {
+        //Group the regions by terrain, largest first, so every terrain can have all of its names generated at once
+        Map<Terrain, List<Integer>> regionsByTerrain = new LinkedHashMap<>();
+        for (Integer regionNum : orderedRegions)
+            regionsByTerrain.computeIfAbsent(terrains.get(regionNum), terrain -> new ArrayList<>()).add(regionNum);
+
         Map<Integer, Region> generatedRegions = new HashMap<>();
-        //For every region
-        for (Integer regionNum : orderedRegions) {
-            //Determine Terrains that aren't allowed
-            Set<Terrain> illegalTerrainSet = new HashSet<>();
-            for (Integer adjacentRegion : regionAdjacencies.get(regionNum)) {
-                if (generatedRegions.containsKey(adjacentRegion)) {
-                    illegalTerrainSet.add(generatedRegions.get(adjacentRegion).getTerrain());
-                }
-            }
-            //Determine Terrain
-            Terrain terrain = Terrain.randomTerrain(level, illegalTerrainSet);
-
-            //Generate name and make sure that it isn't already being used
-            Region region;
-            do {
-                region = new Region(generatedRegionName(terrain), terrain);
-            } while(generatedRegions.values().contains(region));
-
-            //Add the newly generated region to the generatedRegions Map
-            generatedRegions.put(regionNum, region);
+        for (Map.Entry<Terrain, List<Integer>> entry : regionsByTerrain.entrySet()) {
+            List<String> names = markovFor(entry.getKey()).nextValues(entry.getValue().size(), random);
+            for (int i = 0; i < names.size(); i++)
+                generatedRegions.put(entry.getValue().get(i), new Region(entry.getValue().get(i),
+                        capitalized(names.get(i)), entry.getKey()));
         }
-
         return generatedRegions;
     }
 
+    //Generates a single region with the given id and terrain. Its name is not checked against any other region
+    public static Region generatedRegion(int id, Terrain terrain, SplittableRandom random) {
+        return new Region(id, generatedRegionName(terrain, random), terrain);
+    }
+
     //Generates a name for the region given a specific terrain using Markov chains
-    private static String generatedRegionName(Terrain terrain) {
-        String generatedName = REGION_NAME_MARKOV.nextValue();
-        return generatedName.substring(0, 1).toUpperCase() + generatedName.substring(1);
+    private static String generatedRegionName(Terrain terrain, SplittableRandom random) {
+        return capitalized(markovFor(terrain).nextValue(random));
+    }
+
+    //The chain names of the given terrain are generated from
+    private static Markov markovFor(Terrain terrain) {
+        Markov markov = REGION_NAME_MARKOVS.get(terrain.toString().toLowerCase());
+        return markov != null ? markov : REGION_NAME_MARKOVS.get(DEFAULT_CHAIN);
+    }
+
+    private static String capitalized(String name) {
+        return name.substring(0, 1).toUpperCase() + name.substring(1);
     }
 
 
@@ -0,0 +1,101 @@
+package com.laben.islands;
+
+import java.util.*;
+
+/** Which regions of a numeric map border each other, diagonals not counted. Every pair of neighbouring tiles with
+ * different numbers is packed into a long, both ways round, in a single pass over the right and down neighbours of
+ * every tile. The pairs are then sorted and stripped of duplicates, which leaves the neighbours of every region in
+ * ascending order, stored the same way RegionIndex stores tiles: the neighbours of region r are at
+ * [neighbourOffsets[r], neighbourOffsets[r + 1]). Numbers that do not appear on the map have no neighbours.
+ */
+public class RegionAdjacency {
+
+    private final int[] neighbourOffsets; //Region number -> first neighbour, with one extra entry closing the last one
+    private final int[] neighbours;
+
+    //Finds the neighbours of every region on the given numeric map, indexed [x][y]
+    public RegionAdjacency(int[][] numMap) {
+        int numColumns = numMap.length;
+        int numRows = numMap[0].length;
+        int maxRegion = 0;
+        long[] pairs = new long[64];
+        int numPairs = 0;
+        long lastPair = -1; //Runs of tiles along a border repeat the same pair, so only changes are recorded
+        for (int x = 0; x < numColumns; x++) {
+            int[] column = numMap[x];
+            int[] nextColumn = x + 1 < numColumns ? numMap[x + 1] : column;
+            for (int y = 0; y < numRows; y++) {
+                int region = column[y];
+                maxRegion = Math.max(maxRegion, region);
+                int right = nextColumn[y];
+                int down = y + 1 < numRows ? column[y + 1] : region;
+                if (right != region) {
+                    long pair = pack(region, right);
+                    if (pair != lastPair) {
+                        if (numPairs + 2 > pairs.length)
+                            pairs = Arrays.copyOf(pairs, pairs.length * 2);
+                        pairs[numPairs++] = pair;
+                        pairs[numPairs++] = pack(right, region);
+                        lastPair = pair;
+                    }
+                }
+                if (down != region) {
+                    if (numPairs + 2 > pairs.length)
+                        pairs = Arrays.copyOf(pairs, pairs.length * 2);
+                    pairs[numPairs++] = pack(region, down);
+                    pairs[numPairs++] = pack(down, region);
+                }
+            }
+        }
+        Arrays.sort(pairs, 0, numPairs);
+        neighbourOffsets = new int[maxRegion + 2];
+        int[] found = new int[numPairs];
+        int numNeighbours = 0;
+        for (int i = 0; i < numPairs; i++) {
+            if (i > 0 && pairs[i] == pairs[i - 1])
+                continue;
+            neighbourOffsets[(int)(pairs[i] >>> 32) + 1]++;
+            found[numNeighbours++] = (int)pairs[i];
+        }
+        for (int region = 0; region <= maxRegion; region++)
+            neighbourOffsets[region + 1] += neighbourOffsets[region];
+        neighbours = Arrays.copyOf(found, numNeighbours);
+    }
+
+    //The highest region number on the map, plus one
+    public int getNumRegionNumbers() {
+        return neighbourOffsets.length - 1;
+    }
+
+    //The number of regions bordering the region
+    public int getNumNeighbours(int region) {
+        if (region < 0 || region >= neighbourOffsets.length - 1)
+            return 0;
+        return neighbourOffsets[region + 1] - neighbourOffsets[region];
+    }
+
+    //The i-th neighbour of the region, 0 <= i < getNumNeighbours(region), in ascending order
+    public int getNeighbour(int region, int i) {
+        return neighbours[neighbourOffsets[region] + i];
+    }
+
+    //Whether or not the two regions border each other
+    public boolean areAdjacent(int region, int other) {
+        if (getNumNeighbours(region) == 0)
+            return false;
+        return Arrays.binarySearch(neighbours, neighbourOffsets[region], neighbourOffsets[region + 1], other) >= 0;
+    }
+
+    //Returns the neighbours of the region as a new bitset, for callers that change the graph as they go
+    public BitSet neighbourSet(int region) {
+        BitSet set = new BitSet(getNumRegionNumbers());
+        for (int i = 0; i < getNumNeighbours(region); i++)
+            set.set(getNeighbour(region, i));
+        return set;
+    }
+
+    //Region numbers are never negative, so sorting the packed pairs sorts by region, then neighbour
+    private static long pack(int region, int neighbour) {
+        return ((long)region << 32) | neighbour;
+    }
+}
@@ -0,0 +1,122 @@
+package com.laben.islands;
+
+import java.util.*;
+
+/** The outline of every region on a numeric map, as straight segments running along the inside of the region's border.
+ * Neighbouring tiles whose border lies on the same line are merged into one segment, so a region's outline has a few
+ * segments per side instead of one per tile edge. Built in a single pass over the map and stored per region number the
+ * same way RegionIndex stores tiles, with four ints per segment: the x and y on the map of its first tile, its length
+ * in tiles and its flags. Vertical segments run down from their first tile, horizontal ones to the right.
+ */
+public class RegionBoundaries {
+
+    public static final int VERTICAL = 1; //Set for the left and right sides of tiles, clear for the top and bottom
+    public static final int FAR_SIDE = 2; //Set for the right and bottom sides of tiles, clear for the left and top
+    /* Set on horizontal segments whose first (or last) tile continues into the region to its left (or right), so that
+     * the segment has to be drawn a line width longer to close the corner with the vertical segment around it */
+    public static final int EXTEND_START = 4;
+    public static final int EXTEND_END = 8;
+
+    private static final int INTS_PER_SEGMENT = 4;
+
+    private final int[] segmentOffsets; //Region number -> first segment, with one extra entry closing the last one
+    private final int[] segments;
+
+    //Traces the outline of every region on the given numeric map, indexed [x][y]
+    public RegionBoundaries(int[][] numMap) {
+        int numColumns = numMap.length;
+        int numRows = numMap[0].length;
+        int maxRegion = 0;
+        for (int[] column : numMap) {
+            for (int region : column)
+                maxRegion = Math.max(maxRegion, region);
+        }
+        //Collect every segment along with its region, then group them by region
+        int[] found = new int[64 * (INTS_PER_SEGMENT + 1)];
+        int numFound = 0;
+        for (int side = 0; side < 4; side++) {
+            boolean vertical = side < 2;
+            boolean farSide = side % 2 == 1;
+            int numLines = vertical ? numColumns : numRows;
+            int lineLength = vertical ? numRows : numColumns;
+            for (int line = 0; line < numLines; line++) {
+                int runStart = -1;
+                for (int i = 0; i <= lineLength; i++) {
+                    int x = vertical ? line : i;
+                    int y = vertical ? i : line;
+                    boolean border = i < lineLength && hasBorder(numMap, x, y, vertical, farSide);
+                    //A run ends where the border stops or the region changes
+                    if (runStart != -1 && (!border || regionAt(numMap, vertical, line, i) !=
+                            regionAt(numMap, vertical, line, runStart))) {
+                        if (numFound + INTS_PER_SEGMENT + 1 > found.length)
+                            found = Arrays.copyOf(found, found.length * 2);
+                        int region = regionAt(numMap, vertical, line, runStart);
+                        int flags = (vertical ? VERTICAL : 0) | (farSide ? FAR_SIDE : 0);
+                        if (!vertical && runStart > 0 && numMap[runStart - 1][y] == region)
+                            flags |= EXTEND_START;
+                        if (!vertical && i < lineLength && numMap[i][y] == region)
+                            flags |= EXTEND_END;
+                        found[numFound++] = region;
+                        found[numFound++] = vertical ? line : runStart;
+                        found[numFound++] = vertical ? runStart : line;
+                        found[numFound++] = i - runStart;
+                        found[numFound++] = flags;
+                        runStart = -1;
+                    }
+                    if (runStart == -1 && border)
+                        runStart = i;
+                }
+            }
+        }
+        int numSegments = numFound / (INTS_PER_SEGMENT + 1);
+        segmentOffsets = new int[maxRegion + 2];
+        for (int i = 0; i < numFound; i += INTS_PER_SEGMENT + 1)
+            segmentOffsets[found[i] + 1]++;
+        for (int region = 0; region <= maxRegion; region++)
+            segmentOffsets[region + 1] += segmentOffsets[region];
+        segments = new int[numSegments * INTS_PER_SEGMENT];
+        int[] next = Arrays.copyOf(segmentOffsets, maxRegion + 1);
+        for (int i = 0; i < numFound; i += INTS_PER_SEGMENT + 1)
+            System.arraycopy(found, i + 1, segments, next[found[i]]++ * INTS_PER_SEGMENT, INTS_PER_SEGMENT);
+    }
+
+    //The number of segments in the outline of the region
+    public int getNumSegments(int region) {
+        if (region < 0 || region >= segmentOffsets.length - 1)
+            return 0;
+        return segmentOffsets[region + 1] - segmentOffsets[region];
+    }
+
+    //The x coordinate on the map of the first tile of the i-th segment of the region
+    public int getSegmentX(int region, int i) {
+        return segments[(segmentOffsets[region] + i) * INTS_PER_SEGMENT];
+    }
+
+    //The y coordinate on the map of the first tile of the i-th segment of the region
+    public int getSegmentY(int region, int i) {
+        return segments[(segmentOffsets[region] + i) * INTS_PER_SEGMENT + 1];
+    }
+
+    //The number of tiles the i-th segment of the region runs along
+    public int getSegmentLength(int region, int i) {
+        return segments[(segmentOffsets[region] + i) * INTS_PER_SEGMENT + 2];
+    }
+
+    //The flags of the i-th segment of the region, see VERTICAL, FAR_SIDE, EXTEND_START and EXTEND_END
+    public int getSegmentFlags(int region, int i) {
+        return segments[(segmentOffsets[region] + i) * INTS_PER_SEGMENT + 3];
+    }
+
+    //Whether the given side of the tile borders another region or the edge of the map
+    private static boolean hasBorder(int[][] numMap, int x, int y, boolean vertical, boolean farSide) {
+        int neighbourX = x + (vertical ? (farSide ? 1 : -1) : 0);
+        int neighbourY = y + (vertical ? 0 : (farSide ? 1 : -1));
+        return neighbourX < 0 || neighbourY < 0 || neighbourX >= numMap.length || neighbourY >= numMap[0].length ||
+                numMap[neighbourX][neighbourY] != numMap[x][y];
+    }
+
+    //The region of the i-th tile along the given line of the map
+    private static int regionAt(int[][] numMap, boolean vertical, int line, int i) {
+        return vertical ? numMap[line][i] : numMap[i][line];
+    }
+}
@@ -0,0 +1,256 @@
+package com.laben.islands;
+
+import java.util.*;
+
+/** Assigns a terrain to every region of an island in a single pass so that no two adjacent regions share a terrain.
+ * Regions are given a random terrain from largest to smallest. When the neighbours of a region have already used up
+ * every terrain available at the level, only the regions around it are recolored: first its direct neighbours, then
+ * the regions up to two steps away and finally every colored region, each time with a backtracking search that colors
+ * the most constrained region first (DSATUR order). If the level does not offer enough terrain for the shape of the
+ * map at all, the region is merged into its largest neighbour instead. Every such conflict counts as one repair.
+ */
+public class RegionColoring {
+
+    private static final int MAX_LOCAL_RADIUS = 2; //Number of neighbourhood sizes tried before recoloring everything
+    private static final int MAX_SEARCH_AREA = 64; //Most regions a single backtracking search may recolor
+    private static final int SEARCH_BUDGET = 2000; //Most terrain assignments a single backtracking search may try
+
+    private final int level;
+    private final SplittableRandom random;
+    private final List<Terrain> availableTerrain;
+    private final List<Integer> orderedRegions; //Regions still on the map, largest first
+    private final BitSet[] adjacencies; //Region number -> its neighbours, null once it is merged away
+    private final Map<Integer, Terrain> terrains;
+    private final Map<Integer, Integer> merges; //Region merged away -> region it was merged into
+    private int repairs;
+    private int searchSteps;
+
+    private RegionColoring(int level, List<Integer> orderedRegions, RegionAdjacency regionAdjacency,
+                           SplittableRandom random) {
+        this.level = level;
+        this.random = random;
+        availableTerrain = new ArrayList<>(Terrain.availableTerrain(level));
+        this.orderedRegions = new ArrayList<>(orderedRegions);
+        //Copy the adjacencies since merging regions changes them
+        adjacencies = new BitSet[regionAdjacency.getNumRegionNumbers()];
+        for (Integer region : orderedRegions)
+            adjacencies[region] = regionAdjacency.neighbourSet(region);
+        terrains = new HashMap<>();
+        merges = new HashMap<>();
+    }
+
+    /* Given: The level, a list of regions in descending order of size, the adjacencies of the regions and the random
+     * stream to draw from. Returns the coloring of those regions */
+    public static RegionColoring solve(int level, List<Integer> orderedRegions, RegionAdjacency regionAdjacency,
+                                       SplittableRandom random) {
+        RegionColoring coloring = new RegionColoring(level, orderedRegions, regionAdjacency, random);
+        coloring.colorAll();
+        return coloring;
+    }
+
+    //The terrain of every region left on the map
+    public Map<Integer, Terrain> getTerrains() {
+        return terrains;
+    }
+
+    //The regions left on the map after merging, largest first
+    public List<Integer> getOrderedRegions() {
+        return orderedRegions;
+    }
+
+    //The number of times a region was left without a legal terrain and had to be repaired
+    public int getRepairs() {
+        return repairs;
+    }
+
+    public int getNumMergedRegions() {
+        return merges.size();
+    }
+
+    //Replaces every region that was merged away in the given numeric map with the region it was merged into
+    public void relabel(int[][] map) {
+        if (merges.isEmpty())
+            return;
+        for (int x = 0; x < map.length; x++) {
+            for (int y = 0; y < map[0].length; y++) {
+                Integer mergedInto = merges.get(map[x][y]);
+                while (mergedInto != null) {
+                    map[x][y] = mergedInto;
+                    mergedInto = merges.get(mergedInto);
+                }
+            }
+        }
+    }
+
+    private void colorAll() {
+        Deque<Integer> pending = new ArrayDeque<>(orderedRegions);
+        while (!pending.isEmpty()) {
+            int region = pending.poll();
+            if (merges.containsKey(region))
+                continue;
+            int illegalMask = illegalTerrainMask(region);
+            if (Integer.bitCount(illegalMask) < availableTerrain.size()) {
+                terrains.put(region, Terrain.randomTerrain(level, illegalMask, random));
+                continue;
+            }
+            repairs++;
+            if (!recolorAround(region)) {
+                //Coloring is impossible, so the region's neighbour grows over it and has to be colored again
+                int mergedInto = mergeIntoLargestNeighbour(region);
+                terrains.remove(mergedInto);
+                pending.addFirst(mergedInto);
+            }
+        }
+    }
+
+    //Returns the terrain of every colored neighbour of the region
+    private Set<Terrain> illegalTerrain(int region) {
+        Set<Terrain> illegalTerrain = EnumSet.noneOf(Terrain.class);
+        BitSet neighbours = adjacencies[region];
+        for (int adjacentRegion = neighbours.nextSetBit(0); adjacentRegion >= 0;
+             adjacentRegion = neighbours.nextSetBit(adjacentRegion + 1)) {
+            Terrain terrain = terrains.get(adjacentRegion);
+            if (terrain != null)
+                illegalTerrain.add(terrain);
+        }
+        return illegalTerrain;
+    }
+
+    //Returns a mask with the bit of the terrain of every colored neighbour of the region set
+    private int illegalTerrainMask(int region) {
+        int illegalMask = 0;
+        BitSet neighbours = adjacencies[region];
+        for (int adjacentRegion = neighbours.nextSetBit(0); adjacentRegion >= 0;
+             adjacentRegion = neighbours.nextSetBit(adjacentRegion + 1)) {
+            Terrain terrain = terrains.get(adjacentRegion);
+            if (terrain != null)
+                illegalMask |= 1 << terrain.ordinal();
+        }
+        return illegalMask;
+    }
+
+    //Tries to color the region by recoloring ever larger areas around it. Returns whether or not it succeeded
+    private boolean recolorAround(int region) {
+        for (int radius = 1; radius <= MAX_LOCAL_RADIUS + 1; radius++) {
+            boolean everything = radius > MAX_LOCAL_RADIUS;
+            List<Integer> area = everything ? new ArrayList<>(terrains.keySet()) : coloredNeighbourhood(region, radius);
+            if (everything)
+                area.add(region);
+            if (area.size() > MAX_SEARCH_AREA)
+                return false;
+            //Remember the current colors in case the search fails
+            Map<Integer, Terrain> previousTerrains = new HashMap<>();
+            for (Integer areaRegion : area) {
+                Terrain terrain = terrains.remove(areaRegion);
+                if (terrain != null)
+                    previousTerrains.put(areaRegion, terrain);
+            }
+            searchSteps = 0;
+            if (search(area))
+                return true;
+            terrains.putAll(previousTerrains);
+        }
+        return false;
+    }
+
+    //Returns the region along with every colored region at most radius steps away from it
+    private List<Integer> coloredNeighbourhood(int region, int radius) {
+        BitSet visited = new BitSet(adjacencies.length);
+        visited.set(region);
+        List<Integer> area = new ArrayList<>();
+        area.add(region);
+        List<Integer> frontier = Collections.singletonList(region);
+        for (int step = 0; step < radius; step++) {
+            List<Integer> nextFrontier = new ArrayList<>();
+            for (Integer frontierRegion : frontier) {
+                BitSet neighbours = adjacencies[frontierRegion];
+                for (int adjacentRegion = neighbours.nextSetBit(0); adjacentRegion >= 0;
+                     adjacentRegion = neighbours.nextSetBit(adjacentRegion + 1)) {
+                    if (!visited.get(adjacentRegion)) {
+                        visited.set(adjacentRegion);
+                        nextFrontier.add(adjacentRegion);
+                        if (terrains.containsKey(adjacentRegion))
+                            area.add(adjacentRegion);
+                    }
+                }
+            }
+            frontier = nextFrontier;
+        }
+        return area;
+    }
+
+    //Backtracking search which colors every region of the area, most constrained region first
+    private boolean search(List<Integer> area) {
+        if (area.isEmpty())
+            return true;
+        if (++searchSteps > SEARCH_BUDGET)
+            return false;
+        int next = mostConstrainedRegion(area);
+        Set<Terrain> illegalTerrain = illegalTerrain(next);
+        List<Terrain> options = new ArrayList<>(availableTerrain);
+        options.removeAll(illegalTerrain);
+        shuffle(options);
+        area.remove(Integer.valueOf(next));
+        for (Terrain terrain : options) {
+            terrains.put(next, terrain);
+            if (search(area))
+                return true;
+            terrains.remove(next);
+        }
+        area.add(next);
+        return false;
+    }
+
+    //Returns the region with the most distinct terrain around it, breaking ties by its number of uncolored neighbours
+    private int mostConstrainedRegion(List<Integer> area) {
+        int mostConstrained = area.get(0);
+        int highestSaturation = -1;
+        int highestDegree = -1;
+        for (Integer region : area) {
+            int saturation = illegalTerrain(region).size();
+            int degree = 0;
+            BitSet neighbours = adjacencies[region];
+            for (int adjacentRegion = neighbours.nextSetBit(0); adjacentRegion >= 0;
+                 adjacentRegion = neighbours.nextSetBit(adjacentRegion + 1)) {
+                if (!terrains.containsKey(adjacentRegion))
+                    degree++;
+            }
+            if (saturation > highestSaturation || (saturation == highestSaturation && degree > highestDegree)) {
+                mostConstrained = region;
+                highestSaturation = saturation;
+                highestDegree = degree;
+            }
+        }
+        return mostConstrained;
+    }
+
+    //Merges the region into its largest neighbour and returns that neighbour
+    private int mergeIntoLargestNeighbour(int region) {
+        BitSet neighbours = adjacencies[region];
+        adjacencies[region] = null;
+        int mergedInto = region;
+        for (Integer candidate : orderedRegions) {
+            if (neighbours.get(candidate)) {
+                mergedInto = candidate;
+                break;
+            }
+        }
+        for (int neighbour = neighbours.nextSetBit(0); neighbour >= 0;
+             neighbour = neighbours.nextSetBit(neighbour + 1)) {
+            BitSet neighbourAdjacencies = adjacencies[neighbour];
+            neighbourAdjacencies.clear(region);
+            if (neighbour != mergedInto) {
+                neighbourAdjacencies.set(mergedInto);
+                adjacencies[mergedInto].set(neighbour);
+            }
+        }
+        orderedRegions.remove(Integer.valueOf(region));
+        merges.put(region, mergedInto);
+        return mergedInto;
+    }
+
+    private void shuffle(List<Terrain> options) {
+        for (int i = options.size() - 1; i > 0; i--)
+            Collections.swap(options, i, random.nextInt(i + 1));
+    }
+}
@@ -0,0 +1,192 @@
+package com.laben.islands;
+
+import java.util.*;
+
+/** Makes every region of a numeric map a single contiguous piece. A union-find sweep over the map joins every pair of
+ * neighbouring tiles with the same number into one component (diagonals do not count). Each region keeps only its
+ * largest component, and only if that is bigger than a single tile. Every other component (a fragment) is merged into
+ * the neighbouring component it shares the longest border with, after which the map is renumbered in one more sweep.
+ * Voronoi ties are what break regions apart, so fragments are small and usually single tiles.
+ */
+public class RegionConnectivity {
+
+    private static final int MIN_REGION_SIZE = 2; //Smaller components are merged even when they are all there is
+
+    private final int[][] map;
+    private final int width;
+    private final int height;
+    private final int[] parents; //Union-find forest over tile indices x * height + y
+    private final int[] sizes; //The number of tiles under every root
+    private int numFragments;
+    private int numLonePoints;
+
+    private RegionConnectivity(int[][] map) {
+        this.map = map;
+        width = map.length;
+        height = map[0].length;
+        parents = new int[width * height];
+        sizes = new int[width * height];
+        for (int i = 0; i < parents.length; i++) {
+            parents[i] = i;
+            sizes[i] = 1;
+        }
+    }
+
+    //Merges every fragment of every region on the given map into a neighbouring region, changing the map in place
+    public static RegionConnectivity connect(int[][] map) {
+        RegionConnectivity connectivity = new RegionConnectivity(map);
+        connectivity.joinComponents();
+        connectivity.mergeFragments();
+        return connectivity;
+    }
+
+    //The number of components that were merged into a neighbouring region, lone points included
+    public int getNumFragments() {
+        return numFragments;
+    }
+
+    //The number of fragments that were a single tile
+    public int getNumLonePoints() {
+        return numLonePoints;
+    }
+
+    private void joinComponents() {
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                int index = x * height + y;
+                if (x + 1 < width && map[x + 1][y] == map[x][y])
+                    union(index, index + height);
+                if (y + 1 < height && map[x][y + 1] == map[x][y])
+                    union(index, index + 1);
+            }
+        }
+    }
+
+    private void mergeFragments() {
+        //Find the largest component of every region
+        int maxRegion = 0;
+        for (int[] column : map) {
+            for (int region : column)
+                maxRegion = Math.max(maxRegion, region);
+        }
+        int[] mainRoots = new int[maxRegion + 1];
+        Arrays.fill(mainRoots, -1);
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                int index = x * height + y;
+                int region = map[x][y];
+                if (parents[index] == index && (mainRoots[region] == -1 || sizes[index] > sizes[mainRoots[region]]))
+                    mainRoots[region] = index;
+            }
+        }
+        //Every other component is a fragment. Chain the tiles of each fragment together so they can be walked
+        int[] regionOfRoot = new int[parents.length];
+        boolean[] settled = new boolean[parents.length]; //Roots whose region is final
+        int[] firstTiles = new int[parents.length];
+        int[] nextTiles = new int[parents.length];
+        Arrays.fill(firstTiles, -1);
+        List<Integer> fragments = new ArrayList<>();
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                int index = x * height + y;
+                int root = find(index);
+                if (root == index) {
+                    int region = map[x][y];
+                    regionOfRoot[index] = region;
+                    settled[index] = mainRoots[region] == index && sizes[index] >= MIN_REGION_SIZE;
+                    if (!settled[index]) {
+                        fragments.add(index);
+                        numFragments++;
+                        if (sizes[index] == 1)
+                            numLonePoints++;
+                    }
+                }
+                nextTiles[index] = firstTiles[root];
+                firstTiles[root] = index;
+            }
+        }
+        //Merge fragments into settled neighbours until none are left. Most settle in the first pass
+        Map<Integer, Integer> borderLengths = new HashMap<>();
+        while (!fragments.isEmpty()) {
+            boolean progress = false;
+            Iterator<Integer> iterator = fragments.iterator();
+            while (iterator.hasNext()) {
+                int fragment = iterator.next();
+                borderLengths.clear();
+                for (int tile = firstTiles[fragment]; tile != -1; tile = nextTiles[tile]) {
+                    int x = tile / height;
+                    int y = tile % height;
+                    if (x > 0)
+                        countBorder(fragment, tile - height, settled, borderLengths);
+                    if (x + 1 < width)
+                        countBorder(fragment, tile + height, settled, borderLengths);
+                    if (y > 0)
+                        countBorder(fragment, tile - 1, settled, borderLengths);
+                    if (y + 1 < height)
+                        countBorder(fragment, tile + 1, settled, borderLengths);
+                }
+                int target = -1;
+                int longestBorder = 0;
+                for (Map.Entry<Integer, Integer> entry : borderLengths.entrySet()) {
+                    if (entry.getValue() > longestBorder || (entry.getValue() == longestBorder &&
+                            entry.getKey() < target)) {
+                        target = entry.getKey();
+                        longestBorder = entry.getValue();
+                    }
+                }
+                if (target != -1) {
+                    parents[fragment] = target;
+                    iterator.remove();
+                    progress = true;
+                }
+            }
+            /* The map is connected, so a pass without progress means nothing was big enough to settle in the first
+             * place (a checkerboard, say). Settle the largest fragment and carry on from there */
+            if (!progress) {
+                int largest = fragments.get(0);
+                for (Integer fragment : fragments) {
+                    if (sizes[fragment] > sizes[largest])
+                        largest = fragment;
+                }
+                settled[largest] = true;
+                fragments.remove(Integer.valueOf(largest));
+                numFragments--;
+                if (sizes[largest] == 1)
+                    numLonePoints--;
+            }
+        }
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++)
+                map[x][y] = regionOfRoot[find(x * height + y)];
+        }
+    }
+
+    //Counts the border between the fragment and the tile next to it, if that tile belongs to a settled component
+    private void countBorder(int fragment, int neighbour, boolean[] settled, Map<Integer, Integer> borderLengths) {
+        int root = find(neighbour);
+        if (root != fragment && settled[root])
+            borderLengths.merge(root, 1, Integer::sum);
+    }
+
+    private int find(int index) {
+        while (parents[index] != index) {
+            parents[index] = parents[parents[index]];
+            index = parents[index];
+        }
+        return index;
+    }
+
+    private void union(int a, int b) {
+        int rootA = find(a);
+        int rootB = find(b);
+        if (rootA == rootB)
+            return;
+        if (sizes[rootA] < sizes[rootB]) {
+            int swap = rootA;
+            rootA = rootB;
+            rootB = swap;
+        }
+        parents[rootB] = rootA;
+        sizes[rootA] += sizes[rootB];
+    }
+}
@@ -0,0 +1,139 @@
+package com.laben.islands;
+
+import java.util.*;
+
+/** A spatial index of the regions on a numeric map, built once along with the map so that anything working on a single
+ * region (warps, outlines, statistics) only has to touch that region's tiles. Tiles are listed per region in one int
+ * array, x * numRows + y in map coordinates, with the tiles of region r at [tileOffsets[r], tileOffsets[r + 1]) in
+ * column order, so each slice is sorted. Alongside it every region has its area, bounding box and centroid. Regions
+ * are looked up by the number they have on the map; numbers that do not appear on it have an area of 0 and no bounding
+ * box.
+ */
+public class RegionIndex {
+
+    private final int numRows;
+    private final int[] tileOffsets; //Region number -> first entry in tiles, with one extra entry closing the last one
+    private final int[] tiles;
+    private final int[] minX;
+    private final int[] minY;
+    private final int[] maxX;
+    private final int[] maxY;
+    private final float[] centroidX;
+    private final float[] centroidY;
+
+    //Indexes the given numeric map, indexed [x][y], in two passes over it
+    public RegionIndex(int[][] numMap) {
+        int numColumns = numMap.length;
+        numRows = numMap[0].length;
+        int maxRegion = 0;
+        for (int[] column : numMap) {
+            for (int region : column)
+                maxRegion = Math.max(maxRegion, region);
+        }
+        int numRegions = maxRegion + 1;
+        tileOffsets = new int[numRegions + 1];
+        minX = new int[numRegions];
+        minY = new int[numRegions];
+        maxX = new int[numRegions];
+        maxY = new int[numRegions];
+        centroidX = new float[numRegions];
+        centroidY = new float[numRegions];
+        Arrays.fill(minX, Integer.MAX_VALUE);
+        Arrays.fill(minY, Integer.MAX_VALUE);
+        Arrays.fill(maxX, -1);
+        Arrays.fill(maxY, -1);
+        //Count the tiles of every region and measure it
+        long[] sumX = new long[numRegions];
+        long[] sumY = new long[numRegions];
+        for (int x = 0; x < numColumns; x++) {
+            for (int y = 0; y < numRows; y++) {
+                int region = numMap[x][y];
+                tileOffsets[region + 1]++;
+                minX[region] = Math.min(minX[region], x);
+                minY[region] = Math.min(minY[region], y);
+                maxX[region] = Math.max(maxX[region], x);
+                maxY[region] = Math.max(maxY[region], y);
+                sumX[region] += x;
+                sumY[region] += y;
+            }
+        }
+        for (int region = 0; region < numRegions; region++) {
+            int area = tileOffsets[region + 1];
+            if (area > 0) {
+                centroidX[region] = (float)sumX[region] / area;
+                centroidY[region] = (float)sumY[region] / area;
+            }
+            tileOffsets[region + 1] += tileOffsets[region];
+        }
+        //Then drop every tile into its region's slice
+        tiles = new int[numColumns * numRows];
+        int[] next = Arrays.copyOf(tileOffsets, numRegions);
+        for (int x = 0; x < numColumns; x++) {
+            for (int y = 0; y < numRows; y++)
+                tiles[next[numMap[x][y]]++] = x * numRows + y;
+        }
+    }
+
+    //The highest region number the index knows of, plus one
+    public int getNumRegionNumbers() {
+        return tileOffsets.length - 1;
+    }
+
+    //The number of tiles of the region
+    public int getArea(int region) {
+        return inRange(region) ? tileOffsets[region + 1] - tileOffsets[region] : 0;
+    }
+
+    //The x coordinate on the map of the i-th tile of the region, 0 <= i < getArea(region)
+    public int getTileX(int region, int i) {
+        return tiles[tileOffsets[region] + i] / numRows;
+    }
+
+    //The y coordinate on the map of the i-th tile of the region, 0 <= i < getArea(region)
+    public int getTileY(int region, int i) {
+        return tiles[tileOffsets[region] + i] % numRows;
+    }
+
+    //The position i of the tile at the given map coordinates among the region's tiles, -1 if it is not in the region
+    public int positionOf(int region, int x, int y) {
+        if (getArea(region) == 0)
+            return -1;
+        int position = Arrays.binarySearch(tiles, tileOffsets[region], tileOffsets[region + 1], x * numRows + y);
+        return position < 0 ? -1 : position - tileOffsets[region];
+    }
+
+    public int getMinX(int region) {
+        return minX[region];
+    }
+
+    public int getMinY(int region) {
+        return minY[region];
+    }
+
+    public int getMaxX(int region) {
+        return maxX[region];
+    }
+
+    public int getMaxY(int region) {
+        return maxY[region];
+    }
+
+    //The average x coordinate of the region's tiles, which need not lie inside the region itself
+    public float getCentroidX(int region) {
+        return centroidX[region];
+    }
+
+    //The average y coordinate of the region's tiles, which need not lie inside the region itself
+    public float getCentroidY(int region) {
+        return centroidY[region];
+    }
+
+    //The number of bytes taken up by the index's arrays
+    public long getSizeInBytes() {
+        return 4L * (tileOffsets.length + tiles.length + 4 * minX.length + 2 * centroidX.length);
+    }
+
+    private boolean inRange(int region) {
+        return region >= 0 && region < tileOffsets.length - 1;
+    }
+}
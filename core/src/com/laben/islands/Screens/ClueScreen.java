@@ -17,4 +17,9 @@ public class ClueScreen extends InfoScreen {
         super(game, ScreenType.CLUE, clueScreenAssets);
     }
 
+    //Every asset the screen acquires, its own and those of every info screen
+    public static Map<String, Class> getScreenAssets() {
+        return withInfoScreenAssets(clueScreenAssets);
+    }
+
 }
@@ -35,19 +35,18 @@ public class ConsoleScreen extends AbstractScreen{
     private Table rootTable;
     private TextField inputField;
     private Constructor<? extends InfoScreen> prevScreen;
+    private Map<String, Class> prevScreenAssets; //Loaded behind a loading screen on exit if they were evicted
     private I18NBundle itemBundle;
 
     private static final Map<String, Command> commands;
+    private static Map<String, Class> consoleScreenAssets;
 
     public ConsoleScreen(IslandGame game, Class<? extends InfoScreen> prevScreen) {
         this.game = game;
 
         //Load necessary assets
-        assets = new HashMap<>();
-        assets.put("Fonts/ConsoleFont.fnt", BitmapFont.class);
-        assets.put("i18n/ItemBundle", I18NBundle.class);
-        IslandGame.loadAllAssets(game.getManager(), assets);
-        game.getManager().finishLoading();
+        assets = new HashMap<>(consoleScreenAssets);
+        game.getAssetCache().acquire(assets);
 
         itemBundle = game.getManager().get("i18n/ItemBundle");
 
@@ -99,6 +98,10 @@ public class ConsoleScreen extends AbstractScreen{
 
         try {
             this.prevScreen = prevScreen.getDeclaredConstructor(IslandGame.class);
+            //Every info screen has a static getScreenAssets, like the console itself
+            @SuppressWarnings("unchecked")
+            Map<String, Class> prevAssets = (Map<String, Class>)prevScreen.getMethod("getScreenAssets").invoke(null);
+            this.prevScreenAssets = prevAssets;
         } catch (Exception e) {
             log("Error storing previous screen, 'exit' command may not function correctly", Color.RED);
             e.printStackTrace();
@@ -194,7 +197,7 @@ public class ConsoleScreen extends AbstractScreen{
     @Override
     public void dispose() {
         stage.dispose();
-        IslandGame.unloadAllAssets(game.getManager(), assets.keySet());
+        game.getAssetCache().release(assets.keySet());
     }
 
     public IslandGame getGame() {
@@ -205,6 +208,15 @@ public class ConsoleScreen extends AbstractScreen{
         return prevScreen;
     }
 
+    protected Map<String, Class> getPrevScreenAssets() {
+        return prevScreenAssets;
+    }
+
+    //Every asset the screen acquires
+    public static Map<String, Class> getScreenAssets() {
+        return consoleScreenAssets;
+    }
+
     /*Simple class to encapsulate command data - Script takes ConsoleScreen as input and params as array
       For simplicity and not having to slice the array, we always ignore the first param (the command name)
       in our scripts */
@@ -227,6 +239,10 @@ public class ConsoleScreen extends AbstractScreen{
     }
 
     static {
+        consoleScreenAssets = new HashMap<>();
+        consoleScreenAssets.put("Fonts/ConsoleFont.fnt", BitmapFont.class);
+        consoleScreenAssets.put("i18n/ItemBundle", I18NBundle.class);
+
         commands = new HashMap<>();
         commands.put("help", new Command("displays all commands and their function", (console, params) -> {
             if (params.length > 1)
@@ -242,8 +258,14 @@ public class ConsoleScreen extends AbstractScreen{
                 console.logParameterNumError("exit");
             else {
                 try {
-                    console.dispose();
-                    console.getGame().setScreen(console.getPrevScreen().newInstance(console.getGame()));
+                    Constructor<? extends InfoScreen> prevScreen = console.getPrevScreen();
+                    console.getGame().showWhenLoaded(console.getPrevScreenAssets(), () -> {
+                        try {
+                            return prevScreen.newInstance(console.getGame());
+                        } catch (ReflectiveOperationException e) {
+                            throw new IllegalStateException(e);
+                        }
+                    });
                 } catch (Exception e) {
                     console.log("Error instantiating previous screen", Color.RED);
                     e.printStackTrace();
@@ -298,6 +320,65 @@ public class ConsoleScreen extends AbstractScreen{
                 }
             }
         }));
+        commands.put("setstreaming", new Command("[on/off] plays every following level on an island of unlimited size",
+                (console, params) -> {
+                    if (params.length != 2)
+                        console.logParameterNumError("setstreaming");
+                    else if (params[1].toLowerCase().equals("on") || params[1].toLowerCase().equals("off"))
+                        console.getGame().setStreamingIslands(params[1].toLowerCase().equals("on"));
+                    else
+                        console.log("Error with input for command: setstreaming", Color.RED);
+                }));
+        commands.put("pregenstats", new Command("shows how often the next level's island was ready in time",
+                (console, params) -> {
+                    if (params.length > 1)
+                        console.logParameterNumError("pregenstats");
+                    else
+                        console.log(console.getGame().getPreGenerator().toString());
+                }));
+        commands.put("movestats", new Command("shows how long moving between tiles takes on the game screen",
+                (console, params) -> {
+                    if (params.length > 1)
+                        console.logParameterNumError("movestats");
+                    else if (console.getGame().getGameScreen() == null)
+                        console.log("No moves yet");
+                    else {
+                        GameScreen gameScreen = console.getGame().getGameScreen();
+                        console.log(String.format("%d moves, last %.3f ms, average %.3f ms", gameScreen.getNumMoves(),
+                                gameScreen.getLastMoveNanos() / 1e6, gameScreen.getAverageMoveNanos() / 1e6));
+                    }
+                }));
+        commands.put("assetstats", new Command("shows how often screens found their assets already loaded",
+                (console, params) -> {
+                    if (params.length > 1)
+                        console.logParameterNumError("assetstats");
+                    else
+                        console.log(console.getGame().getAssetCache().toString());
+                }));
+        commands.put("save", new Command("[file] saves the game to file in the local storage",
+                (console, params) -> {
+                    if (params.length != 2)
+                        console.logParameterNumError("save");
+                    else {
+                        try {
+                            console.getGame().saveGame(Gdx.files.local(params[1]).file());
+                        } catch (Exception e) {
+                            console.log("Error saving game: " + e.getMessage(), Color.RED);
+                        }
+                    }
+                }));
+        commands.put("load", new Command("[file] resumes the game saved to file in the local storage",
+                (console, params) -> {
+                    if (params.length != 2)
+                        console.logParameterNumError("load");
+                    else {
+                        try {
+                            console.getGame().loadGame(Gdx.files.local(params[1]).file());
+                        } catch (Exception e) {
+                            console.log("Error loading game: " + e.getMessage(), Color.RED);
+                        }
+                    }
+                }));
         commands.put("additemsrand", new Command("[min] [max] gives player a random quantity between min and max of every item in the game. Values are must be in range 0-999",
                 (console, params) -> {
                     if (params.length != 3)
@@ -18,11 +18,15 @@ import com.badlogic.gdx.scenes.scene2d.ui.Label;
 import com.badlogic.gdx.scenes.scene2d.ui.Table;
 import com.badlogic.gdx.scenes.scene2d.utils.TextureRegionDrawable;
 import com.badlogic.gdx.utils.Align;
+import com.badlogic.gdx.utils.TimeUtils;
 import com.badlogic.gdx.utils.viewport.FitViewport;
 import com.laben.islands.*;
 
 import java.util.*;
 
+/** The screen of the tile the player is standing on. It is built once and kept for the rest of the game: moving to
+ * another tile only rebinds the actors that depend on the tile (the background cells, trees, treasure, arrows, region
+ * label and the marker on the mini map), so no assets are loaded and no actors are created for a move **/
 public class GameScreen extends AbstractScreen{
 
     public static final float GAME_TABLE_WIDTH = .55f * (float) IslandGame.GAME_WIDTH;
@@ -30,13 +34,36 @@ public class GameScreen extends AbstractScreen{
 
     private Stage stage;
     private Map<String, Class> assets;
-    private Table gameTable;
+    private TileRenderer gameTable; //Draws the cells and trees of the tile
     private IslandGame game;
     private TextureAtlas atlas;
-    private final Tile tile;
+    private Tile tile;
     private Label staminaLabel;
     private Table rootTable;
     private IslandGame.StaminaBar staminaBar;
+    private Label levelLabel;
+    private Image miniMapBackground;
+    private Image miniMap;
+    private final IslandMapTexture miniMapTexture = new IslandMapTexture("Map");
+    private Island.IterableRegionMap miniMapRegions; //The region map the mini map was drawn from
+    private Image redDot;
+    private Image[] arrows; //Top, Right, Bottom, Left
+    private Image regionTextBackground;
+    private Label regionLabel;
+    private Image treasure;
+    private final Map<String, TextureRegionDrawable> drawables = new HashMap<>(); //Atlas region name -> drawable
+    private long lastMoveNanos;
+    private long totalMoveNanos;
+    private int numMoves;
+
+    private static Map<String, Class> gameScreenAssets;
+
+    static {
+        gameScreenAssets = new HashMap<>();
+        gameScreenAssets.put("GameScreenTextures.atlas", TextureAtlas.class);
+        gameScreenAssets.put("Fonts/StaminaTextFont.fnt", BitmapFont.class);
+        gameScreenAssets.put("Fonts/GameScreenRegion.fnt", BitmapFont.class);
+    }
 
 
     public GameScreen(final IslandGame game, final Tile tile) {
@@ -47,12 +74,8 @@ public class GameScreen extends AbstractScreen{
 
 
         //Load assets
-        assets = new HashMap<>();
-        assets.put("GameScreenTextures.atlas", TextureAtlas.class);
-        assets.put("Fonts/StaminaTextFont.fnt", BitmapFont.class);
-        assets.put("Fonts/GameScreenRegion.fnt", BitmapFont.class);
-        IslandGame.loadAllAssets(game.getManager(), assets);
-        game.getManager().finishLoading();
+        assets = new HashMap<>(gameScreenAssets);
+        game.getAssetCache().acquire(assets);
         atlas = game.getManager().get("GameScreenTextures.atlas");
 
 
@@ -63,7 +86,7 @@ public class GameScreen extends AbstractScreen{
         rootTable.setFillParent(true);
 
         //Add gameview table
-        gameTable = initializeGameTable();
+        gameTable = new TileRenderer(atlas);
         rootTable.row().height(GAME_TABLE_HEIGHT);
         float leftPadding  = (.05f * (float)IslandGame.GAME_WIDTH);
         float topBottomPadding = 2.5f / 60.0f * (float)IslandGame.GAME_HEIGHT;
@@ -71,10 +94,6 @@ public class GameScreen extends AbstractScreen{
                 .padBottom(topBottomPadding).left();
 
         rootTable.validate();
-        gameTable.validate();
-
-        //Add trees
-        addTrees();
 
         //Create stamina text label
         Label.LabelStyle staminaLabelStyle = new Label.LabelStyle();
@@ -103,75 +122,53 @@ public class GameScreen extends AbstractScreen{
         Image staminaBackground = staminaBar.getBlackBackground();
 
         //Create level text (uses same font as stamina)
-        Label.LabelStyle levelLabelStyle = new Label.LabelStyle();
-        levelLabelStyle.font = game.getManager().get("Fonts/StaminaTextFont.fnt");
-        levelLabelStyle.fontColor = Color.BLACK;
-        Label levelLabel = new Label("Level " + game.getCurrentLevel(), staminaLabelStyle);
+        levelLabel = new Label("", staminaLabelStyle);
         levelLabel.setAlignment(Align.bottomRight);
         levelLabel.setSize(.4f * IslandGame.getGameWidth(), .5f / 6f * IslandGame.getGameHeight());
         levelLabel.validate();
-        stage.addActor(levelLabel);
         float levelLabelXPos = staminaBackground.getX() + staminaBackground.getWidth() - levelLabel.getWidth();
         float levelLabelYPos = staminaBackground.getY() + staminaBackground.getHeight();
         levelLabel.setPosition(levelLabelXPos, levelLabelYPos);
         stage.addActor(levelLabel);
 
         //Create mini map bg
-        Image miniMapBackground = new Image(atlas.findRegion("MiniMapBackground"));
+        miniMapBackground = new Image(atlas.findRegion("MiniMapBackground"));
         miniMapBackground.setPosition(staminaBackground.getX(), staminaBackground.getY() -
                 .05f * IslandGame.getGameHeight() - staminaBackground.getWidth());
         miniMapBackground.setSize(staminaBackground.getWidth(), staminaBackground.getWidth());
         stage.addActor(miniMapBackground);
 
-        //Create mini map
-        miniMapBackground.validate();
-        Table miniMap = initializedMiniMapTable();
+        //Create mini map, whose image is drawn again whenever the island's region map changes
+        miniMap = new Image();
         miniMap.setPosition(miniMapBackground.getX() + miniMapBackground.getWidth() * .025f,
                 miniMapBackground.getY() + miniMapBackground.getWidth() * .025f);
         miniMap.setSize(miniMapBackground.getWidth() * .95f, miniMapBackground.getWidth() * .95f);
+        addMapViewListener(miniMap);
         stage.addActor(miniMap);
-        miniMap.toFront();
 
         //Add current location marker to mini map
-        miniMap.validate();
-        Image redDot = new Image(atlas.findRegion("reddot"));
-        redDot.setSize(miniMap.getColumnWidth(0), miniMap.getRowHeight(0));
-        float xStartPos = miniMap.localToStageCoordinates(new Vector2(0, 0)).x;
-        float yStartPos = miniMap.localToStageCoordinates(new Vector2(0, 0)).y;
-        float xMod = miniMap.getWidth() / (float)miniMap.getColumns() * (float)game.getCurrentTile()
-                .getCoordinates().x;
-        float yMod = miniMap.getHeight() / (float)miniMap.getRows() *
-                ((float)miniMap.getRows() - 1 - (float)game.getCurrentTile().getCoordinates().y);
-        redDot.setPosition(xStartPos + xMod, yStartPos + yMod);
+        redDot = new Image(atlas.findRegion("reddot"));
         addMapViewListener(redDot);
         stage.addActor(redDot);
-        redDot.toFront();
-
-        //Add arrows
-        if (tile.tileAbove() != null)
-            addArrow(new BitSet(2));
-        if (tile.tileRight() != null) {
-            BitSet right = new BitSet();
-            right.set(0);
-            addArrow(right);
-        }
-        if (tile.tileBelow() != null) {
-            BitSet bottom = new BitSet();
-            bottom.set(1);
-            addArrow(bottom);
-        }
-        if (tile.tileLeft() != null) {
-            BitSet left = new BitSet();
-            left.set(0);
-            left.set(1);
-            addArrow(left);
-        }
+
+        //Add arrows, which are only shown where there is a tile to move to
+        arrows = new Image[4];
+        arrows[0] = addArrow(new BitSet(2));
+        BitSet right = new BitSet();
+        right.set(0);
+        arrows[1] = addArrow(right);
+        BitSet bottom = new BitSet();
+        bottom.set(1);
+        arrows[2] = addArrow(bottom);
+        BitSet left = new BitSet();
+        left.set(0);
+        left.set(1);
+        arrows[3] = addArrow(left);
 
         //Create region text background
-        Image regionTextBackground = new Image(atlas.findRegion(tile.getRegion().getTerrain().toString() + "Map"));
+        regionTextBackground = new Image();
         float regionTextBoxWidth = gameTable.getWidth() * .33f;
         float regionTextBoxHeight = gameTable.getHeight() * .15f;
-        regionTextBackground.toFront();
         float regionTextBoxPosX = gameTable.getX();
         float regionTextBoxPosY = gameTable.getY() + gameTable.getHeight() - regionTextBoxHeight;
         regionTextBackground.setSize(regionTextBoxWidth, regionTextBoxHeight);
@@ -179,7 +176,6 @@ public class GameScreen extends AbstractScreen{
         stage.addActor(regionTextBackground);
 
         Image regionTextBox = new Image(atlas.findRegion("RegionTextBox"));
-        regionTextBox.toFront();
         regionTextBox.setPosition(regionTextBoxPosX, regionTextBoxPosY);
         regionTextBox.setSize(regionTextBoxWidth, regionTextBoxHeight);
         stage.addActor(regionTextBox);
@@ -188,11 +184,7 @@ public class GameScreen extends AbstractScreen{
         Label.LabelStyle regionTextStyle = new Label.LabelStyle();
         regionTextStyle.font = game.getManager().get("Fonts/GameScreenRegion.fnt");
         regionTextStyle.fontColor = Color.BLACK;
-        String[] splitRegionNameArray = tile.getRegion().toString().split("\\s+");
-        StringBuilder splitRegionName = new StringBuilder(splitRegionNameArray[0]);
-        splitRegionName.append("\n");
-        splitRegionName.append(game.getGeneralBundle().get(splitRegionNameArray[1]));
-        Label regionLabel = new Label(splitRegionName.toString(), regionTextStyle);
+        regionLabel = new Label("", regionTextStyle);
         //regionLabel.setAlignment(Align.topLeft);
         regionLabel.setSize(regionTextBoxWidth * .9f, regionTextBoxHeight * .9f);
         regionLabel.setPosition(regionTextBoxPosX + regionTextBoxWidth * .05f,
@@ -214,28 +206,60 @@ public class GameScreen extends AbstractScreen{
 
             @Override
             public void touchUp(InputEvent event, float x, float y, int pointer, int button) {
-                dispose();
-                game.setScreen(new InventoryScreen(game));
+                //The game screen is kept, so only the inventory has to be built
+                game.showWhenLoaded(InventoryScreen.getScreenAssets(), () -> new InventoryScreen(game));
             }
         });
 
         //Add treasure
-        if (game.getCurrentTile().hasTreasure()) {
-            float treasureSideSize = gameTable.getWidth() / 5f;
-            float treasureX = gameTable.getX() + treasureSideSize * 2f;
-            float treasureY = gameTable.getY() + treasureSideSize * 3f;
-            Image treasure = new Image(atlas.findRegion("Treasure"));
-            treasure.setPosition(treasureX, treasureY);
-            treasure.setSize(treasureSideSize, treasureSideSize);
-            stage.addActor(treasure);
-        }
+        float treasureSideSize = gameTable.getWidth() / 5f;
+        treasure = new Image(atlas.findRegion("Treasure"));
+        treasure.setPosition(gameTable.getX() + treasureSideSize * 2f, gameTable.getY() + treasureSideSize * 3f);
+        treasure.setSize(treasureSideSize, treasureSideSize);
+        stage.addActor(treasure);
+
+        bindTile();
+    }
+
+    //Moves the screen to the given tile, rebinding only what depends on the tile
+    public void setTile(Tile tile) {
+        long start = TimeUtils.nanoTime();
+        this.tile = tile;
+        bindTile();
+        lastMoveNanos = TimeUtils.nanoTime() - start;
+        totalMoveNanos += lastMoveNanos;
+        numMoves++;
+    }
+
+    public Tile getTile() {
+        return tile;
+    }
 
+    //Nanoseconds the last move took to rebind the screen
+    public long getLastMoveNanos() {
+        return lastMoveNanos;
     }
 
+    //Average nanoseconds a move has taken to rebind the screen, 0 before the first move
+    public long getAverageMoveNanos() {
+        return numMoves == 0 ? 0 : totalMoveNanos / numMoves;
+    }
+
+    public int getNumMoves() {
+        return numMoves;
+    }
+
+    //Every asset the screen acquires
+    public static Map<String, Class> getScreenAssets() {
+        return gameScreenAssets;
+    }
 
     @Override
     public void show() {
         setInputProcessor(game, stage);
+        //The map and the inventory are the screens most likely to follow, so they load while the player looks around
+        game.getAssetCache().preload(MapViewScreen.getScreenAssets());
+        game.getAssetCache().preload(InventoryScreen.getScreenAssets());
     }
 
     @Override
@@ -294,53 +318,56 @@ public class GameScreen extends AbstractScreen{
     @Override
     public void dispose() {
         stage.dispose();
-        IslandGame.unloadAllAssets(game.getManager(), assets.keySet());
-        atlas.dispose();
+        miniMapTexture.dispose();
+        game.getAssetCache().release(assets.keySet());
     }
 
-    private Table initializedMiniMapTable() {
-        Island.IterableRegionMap regionMap = game.getCurrentIsland().getIterableRegionMap();
-        Table table = new Table();
-        table.setRound(false);
-        //Get image files for each terrain type
-        Map<Terrain, TextureAtlas.AtlasRegion> terrainAtlasRegionMap = new HashMap<>();
-        for (Terrain terrain : Terrain.TERRAIN_SET) {
-            StringBuilder terrainFileName = new StringBuilder(terrain.toString());
-            terrainFileName.append("Map");
-            terrainAtlasRegionMap.put(terrain, atlas.findRegion(terrainFileName.toString()));
-        }
-        //Iterate through each row
-        for (List<Region> row : regionMap) {
-            //Iterate through each tile in row's region
-            for (Region region : row) {
-                Image image = new Image(terrainAtlasRegionMap.get(region.getTerrain()));
-                table.add(image).uniform().expand().fill();
-            }
-            table.row();
-        }
-        addMapViewListener(table);
-        return table;
+    //Points every actor that depends on the tile at the current tile
+    private void bindTile() {
+        String terrainName = tile.getRegion().getTerrain().toString();
+        gameTable.setTile(tile);
+        treasure.setVisible(tile.hasTreasure());
+        arrows[0].setVisible(tile.tileAbove() != null);
+        arrows[1].setVisible(tile.tileRight() != null);
+        arrows[2].setVisible(tile.tileBelow() != null);
+        arrows[3].setVisible(tile.tileLeft() != null);
+
+        //Region text
+        regionTextBackground.setDrawable(drawable(terrainName + "Map"));
+        String[] splitRegionNameArray = tile.getRegion().toString().split("\\s+");
+        StringBuilder splitRegionName = new StringBuilder(splitRegionNameArray[0]);
+        splitRegionName.append("\n");
+        splitRegionName.append(game.getGeneralBundle().get(splitRegionNameArray[1]));
+        regionLabel.setText(splitRegionName.toString());
+        levelLabel.setText("Level " + game.getCurrentLevel());
+
+        bindMiniMap();
     }
 
-    private Table initializeGameTable() {
-        Table table = new Table();
-        //table.setBackground(new TextureRegionDrawable(atlas.findRegion(tile.getRegion().getTerrain().getBackgroundImage())));
-        Tile.GraphicsItem[][] gItems = tile.getGraphicsItemsTable();
-        for (Tile.GraphicsItem[] row : gItems) {
-            for (Tile.GraphicsItem item : row) {
-                String modifier;
-                if (item.equals(Tile.GraphicsItem.ROCK))
-                    modifier = "Rock";
-                else if (item.equals(Tile.GraphicsItem.GRASS))
-                    modifier = "Grass";
-                else modifier = "Background";
-                Image itemImage = new Image(atlas.findRegion(tile.getRegion().getTerrain().toString() + modifier));
-                table.add(itemImage).uniform().expand().fill();
-            }
-            table.row();
+    //Redraws the mini map if the island's region map changed since it was drawn, then moves the marker onto the tile
+    private void bindMiniMap() {
+        Island.IterableRegionMap regionMap = tile.getIsland().getIterableRegionMap();
+        float cellWidth = miniMap.getWidth() / (float)regionMap.getNumColumns();
+        float cellHeight = miniMap.getHeight() / (float)regionMap.getNumRows();
+        if (regionMap != miniMapRegions) {
+            miniMapRegions = regionMap;
+            miniMap.setDrawable(new TextureRegionDrawable(miniMapTexture.getMap(regionMap, atlas)));
+            redDot.setSize(cellWidth, cellHeight);
         }
+        float xMod = cellWidth * (float)(tile.getCoordinates().x - regionMap.getOriginX());
+        float yMod = cellHeight * ((float)regionMap.getNumRows() - 1 - (float)(tile.getCoordinates().y -
+                regionMap.getOriginY()));
+        redDot.setPosition(miniMap.getX() + xMod, miniMap.getY() + yMod);
+    }
 
-        return table;
+    //Returns the drawable of the atlas region with the given name, creating it the first time it is asked for
+    private TextureRegionDrawable drawable(String name) {
+        TextureRegionDrawable drawable = drawables.get(name);
+        if (drawable == null) {
+            drawable = new TextureRegionDrawable(atlas.findRegion(name));
+            drawables.put(name, drawable);
+        }
+        return drawable;
     }
 
     private String staminaString() {
@@ -368,14 +395,14 @@ public class GameScreen extends AbstractScreen{
         });
     }
 
-    /* Adds a specific arrow to the game screen. The arrow is represented in binary by using a bitset in order to
-       minimize cost. The binary values from 0-3 for each arrow is as follows: Top, Right, Bottom, Left
+    /* Adds a specific arrow to the game screen and returns it. The arrow is represented in binary by using a bitset
+       in order to minimize cost. The binary values from 0-3 for each arrow is as follows: Top, Right, Bottom, Left
      */
-    private void addArrow(BitSet arrow) {
+    private Image addArrow(final BitSet arrow) {
         //BitSets
-        BitSet right = new BitSet(2);
+        final BitSet right = new BitSet(2);
         right.set(0); //1
-        BitSet bottom = new BitSet(2);
+        final BitSet bottom = new BitSet(2);
         bottom.set(1); //2
         BitSet left = new BitSet(2);
         left.set(1);
@@ -386,7 +413,6 @@ public class GameScreen extends AbstractScreen{
         float arrowHeight;
         Cell gameTableCell = rootTable.getCell(gameTable);
         Vector2 pos;
-        final Tile newTile;
         //Top
         if (arrow.equals(new BitSet(2))) {
             arrowImage = new Image(atlas.findRegion("UpArrow"));
@@ -394,7 +420,6 @@ public class GameScreen extends AbstractScreen{
             arrowHeight = gameTable.getHeight() / 8f;
             pos = new Vector2((gameTable.getWidth() - arrowWidth) / 2f,
                     gameTable.getHeight() - gameTableCell.getPadTop() - arrowHeight);
-            newTile = tile.tileAbove();
         }
         //Right
         else if (arrow.equals(right)) {
@@ -403,7 +428,6 @@ public class GameScreen extends AbstractScreen{
             arrowHeight = gameTable.getWidth() / 5f;
             pos = new Vector2((gameTable.getWidth() - arrowWidth),
                     (gameTable.getHeight() - arrowHeight) / 2f - gameTableCell.getPadBottom());
-            newTile = tile.tileRight();
         }
         //Bottom
         else if (arrow.equals(bottom)) {
@@ -412,7 +436,6 @@ public class GameScreen extends AbstractScreen{
             arrowHeight = gameTable.getHeight() / 8f;
             pos = new Vector2((gameTable.getWidth() - arrowWidth) / 2f,
                     0 - gameTableCell.getPadBottom());
-            newTile = tile.tileBelow();
         }
         //Left
         else if (arrow.equals(left)) {
@@ -421,7 +444,6 @@ public class GameScreen extends AbstractScreen{
             arrowHeight = gameTable.getWidth() / 5f;
             pos = new Vector2(0,
                     (gameTable.getHeight()  - arrowHeight) / 2f - gameTableCell.getPadBottom());
-            newTile = tile.tileLeft();
         }
         else throw new IllegalArgumentException("Invalid BitSet Argument");
 
@@ -437,51 +459,23 @@ public class GameScreen extends AbstractScreen{
 
             @Override
             public void touchUp(InputEvent event, float x, float y, int pointer, int button) {
+                //The arrow stays in place between tiles, so the tile it leads to is looked up on release
+                Tile newTile;
+                if (arrow.isEmpty())
+                    newTile = tile.tileAbove();
+                else if (arrow.equals(right))
+                    newTile = tile.tileRight();
+                else if (arrow.equals(bottom))
+                    newTile = tile.tileBelow();
+                else newTile = tile.tileLeft();
+                if (newTile == null)
+                    return;
                 game.setCurrentTile(newTile);
                 game.loadGameScreen();
             }
         });
-        arrowImage.toFront();
         stage.addActor(arrowImage);
-    }
-
-    private void addTrees() {
-        //For each corner starting in topleft and moving clockwise
-        for (int corner = 0; corner < 4; corner++) {
-            List<Vector2> sortedTrees = new ArrayList<>(tile.getTrees().treeCoordinates(corner));
-            Collections.sort(sortedTrees, new Comparator<Vector2>() {
-                @Override
-                public int compare(Vector2 o1, Vector2 o2) {
-                    if (o1.y == o2.y)
-                        return 0;
-                    if (o1.y > o2.y)
-                        return -1;
-                    else
-                        return 1;
-                }
-            });
-            for(Vector2 treePos : sortedTrees) {
-                float treeWidth = GAME_TABLE_WIDTH / 7f;
-                float treeHeight = GAME_TABLE_HEIGHT / 7f * 3f;
-                Vector2 absolutePos;
-                if (corner == 0)
-                    absolutePos = new Vector2(treePos.x,
-                            treePos.y + GAME_TABLE_HEIGHT - Tile.TREE_CORNER_SIDE_SIZE - treeHeight);
-                else if (corner == 1)
-                    absolutePos = new Vector2(treePos.x + GAME_TABLE_WIDTH - Tile.TREE_CORNER_SIDE_SIZE - treeWidth,
-                            treePos.y + GAME_TABLE_HEIGHT - Tile.TREE_CORNER_SIDE_SIZE - treeHeight);
-                else if (corner == 2)
-                    absolutePos = new Vector2(treePos.x + GAME_TABLE_WIDTH - Tile.TREE_CORNER_SIDE_SIZE - treeWidth,
-                            treePos.y);
-                else absolutePos = new Vector2(treePos.x, treePos.y);
-
-                Image treeImage = new Image(atlas.findRegion(tile.getRegion().getTerrain().toString() + "Tree"));
-                treeImage.setPosition(gameTable.localToStageCoordinates(absolutePos).x,
-                        gameTable.localToStageCoordinates(absolutePos).y - ((IslandGame.GAME_HEIGHT - GAME_TABLE_HEIGHT)/2f));
-                treeImage.setSize(treeWidth, treeHeight);
-                stage.addActor(treeImage);
-            }
-        }
+        return arrowImage;
     }
 
     @Override
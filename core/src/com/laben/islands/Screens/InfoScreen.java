@@ -35,19 +35,24 @@ public abstract class InfoScreen extends AbstractScreen {
 
     public enum ScreenType {PLAYER, INVENTORY, CLUE}
 
+    //Returns the given assets of a single screen along with the assets every info screen needs
+    protected static Map<String, Class> withInfoScreenAssets(Map<String, Class> assetMap) {
+        Map<String, Class> assets = new HashMap<>(assetMap);
+        assets.put("InfoScreenTextures.atlas", TextureAtlas.class);
+        assets.put("Fonts/InfoViewTitle.fnt", BitmapFont.class);
+        assets.put("i18n/InfoViewBundle", I18NBundle.class);
+        assets.put("Fonts/StaminaTextFont.fnt", BitmapFont.class);
+        return assets;
+    }
+
     public InfoScreen(final IslandGame game, final ScreenType screenType, Map<String, Class> assetMap) {
         this.game = game;
         stage = new Stage(new FitViewport(IslandGame.getGameWidth(), IslandGame.getGameHeight()));
         setInputProcessor(game, stage);
 
 
-        assets = new HashMap<>(assetMap);
-        assets.put("InfoScreenTextures.atlas", TextureAtlas.class);
-        assets.put("Fonts/InfoViewTitle.fnt", BitmapFont.class);
-        assets.put("i18n/InfoViewBundle", I18NBundle.class);
-        assets.put("Fonts/StaminaTextFont.fnt", BitmapFont.class);
-        IslandGame.loadAllAssets(game.getManager(), assets);
-        game.getManager().finishLoading();
+        assets = withInfoScreenAssets(assetMap);
+        game.getAssetCache().acquire(assets);
         atlas = game.getManager().get("InfoScreenTextures.atlas");
         infoBundle = game.getManager().get("i18n/InfoViewBundle");
 
@@ -78,8 +83,7 @@ public abstract class InfoScreen extends AbstractScreen {
 
                 @Override
                 public void touchUp(InputEvent event, float x, float y, int pointer, int button) {
-                    dispose();
-                    getGame().setScreen(new InventoryScreen(game));
+                    getGame().showWhenLoaded(InventoryScreen.getScreenAssets(), () -> new InventoryScreen(game));
                 }
             });
         }
@@ -102,8 +106,7 @@ public abstract class InfoScreen extends AbstractScreen {
 
                 @Override
                 public void touchUp(InputEvent event, float x, float y, int pointer, int button) {
-                    dispose();
-                    getGame().setScreen(new ClueScreen(game));
+                    getGame().showWhenLoaded(ClueScreen.getScreenAssets(), () -> new ClueScreen(game));
                 }
             });
         }
@@ -172,11 +175,10 @@ public abstract class InfoScreen extends AbstractScreen {
             public void touchUp(InputEvent event, float x, float y, int pointer, int button) {
                 if (dev && !Gdx.input.isKeyPressed(Input.Keys.D) && !Gdx.input.isKeyPressed(Input.Keys.E) &&
                         !Gdx.input.isKeyPressed(Input.Keys.V)) {
-                    dispose();
-                    getGame().setScreen(new ConsoleScreen(getGame(), thisClass));
+                    getGame().showWhenLoaded(ConsoleScreen.getScreenAssets(),
+                            () -> new ConsoleScreen(getGame(), thisClass));
                 } else {
-                    dispose();
-                    getGame().setScreen(new GameScreen(getGame(), getGame().getCurrentTile()));
+                    getGame().loadGameScreen();
                 }
             }
         });
@@ -244,8 +246,7 @@ public abstract class InfoScreen extends AbstractScreen {
     @Override
     public void dispose() {
         stage.dispose();
-        IslandGame.unloadAllAssets(game.getManager(), assets.keySet());
-        atlas.dispose();
+        game.getAssetCache().release(assets.keySet());
     }
 
 
@@ -57,6 +57,11 @@ public class InventoryScreen extends InfoScreen{
     private Label useLabel;
     private Label valueLabel;
 
+    //Every asset the screen acquires, its own and those of every info screen
+    public static Map<String, Class> getScreenAssets() {
+        return withInfoScreenAssets(inventoryScreenAssets);
+    }
+
     public InventoryScreen(IslandGame game) {
         super(game, ScreenType.INVENTORY, inventoryScreenAssets);
 
@@ -373,12 +378,6 @@ public class InventoryScreen extends InfoScreen{
         return table;
     }
 
-    @Override
-    public void dispose() {
-        inventoryAtlas.dispose();
-        super.dispose();
-    }
-
     private void addInputDetection(Image arrow, final boolean left) {
         if (pageNum < maxPageNum) {
             arrow.addListener(new InputListener() {
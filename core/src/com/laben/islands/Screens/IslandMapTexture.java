@@ -0,0 +1,147 @@
+package com.laben.islands.Screens;
+
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.TextureData;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.PixmapTextureData;
+import com.badlogic.gdx.utils.Disposable;
+import com.laben.islands.Island;
+import com.laben.islands.Region;
+import com.laben.islands.Terrain;
+
+import java.util.*;
+
+/** An island's map drawn into a single texture, one terrain image per tile, so that a map screen draws one image rather
+ * than one actor per tile. The map is only drawn again when it is asked for with a different region map, which happens
+ * once per level. The pixels are copied on the CPU into a pixmap that is kept around, which lets the texture be
+ * managed: it is reloaded from the pixmap when the GL context is lost, and nothing has to be redrawn.
+ *
+ * The terrain images are copied out of the atlas page once per atlas, since getting at the page's pixels means
+ * decoding the whole page file again. Later maps only copy those small images, and a map of the same size as the last
+ * one, like a chunked island's moving window, is drawn into the same pixmap and texture.
+ */
+public class IslandMapTexture implements Disposable {
+
+    public static final int MAX_TEXTURE_SIDE = 1024; //Tiles are drawn smaller than their images to stay within this
+
+    private final String regionSuffix; //Appended to the terrain name to get its image in the atlas
+    private TextureAtlas tileAtlas; //The atlas the terrain images were copied from
+    private final Pixmap[] tiles = new Pixmap[Terrain.count()]; //[terrain ordinal]
+    private Island.IterableRegionMap regionMap; //The region map that was last drawn
+    private Pixmap pixmap;
+    private Texture texture;
+    private TextureRegion map;
+    private int numBuilds;
+
+    public IslandMapTexture(String regionSuffix) {
+        this.regionSuffix = regionSuffix;
+    }
+
+    /* Returns the given region map drawn with the terrain images of the given atlas, with the map's first row at the
+     * top. It is drawn only if it is not the map that was drawn last */
+    public TextureRegion getMap(Island.IterableRegionMap regionMap, TextureAtlas atlas) {
+        if (regionMap != this.regionMap) {
+            if (atlas != tileAtlas)
+                copyTiles(atlas);
+            draw(regionMap);
+            this.regionMap = regionMap;
+            numBuilds++;
+        }
+        return map;
+    }
+
+    //The number of times a map was drawn
+    public int getNumBuilds() {
+        return numBuilds;
+    }
+
+    @Override
+    public void dispose() {
+        disposeMap();
+        disposeTiles();
+    }
+
+    //Copies every terrain image out of the atlas page into a pixmap of its own
+    private void copyTiles(TextureAtlas atlas) {
+        disposeTiles();
+        TextureAtlas.AtlasRegion[] terrainRegions = new TextureAtlas.AtlasRegion[Terrain.count()];
+        for (Terrain terrain : Terrain.TERRAIN_SET)
+            terrainRegions[terrain.ordinal()] = atlas.findRegion(terrain.toString() + regionSuffix);
+        //Every terrain image is on the same page
+        TextureData pageData = terrainRegions[0].getTexture().getTextureData();
+        if (!pageData.isPrepared())
+            pageData.prepare();
+        Pixmap page = pageData.consumePixmap();
+        for (int terrain = 0; terrain < tiles.length; terrain++) {
+            TextureAtlas.AtlasRegion region = terrainRegions[terrain];
+            tiles[terrain] = new Pixmap(region.getRegionWidth(), region.getRegionHeight(), Pixmap.Format.RGBA8888);
+            tiles[terrain].setBlending(Pixmap.Blending.None);
+            tiles[terrain].drawPixmap(page, 0, 0, region.getRegionX(), region.getRegionY(), region.getRegionWidth(),
+                    region.getRegionHeight());
+        }
+        if (pageData.disposePixmap())
+            page.dispose();
+        tileAtlas = atlas;
+    }
+
+    private void draw(Island.IterableRegionMap regionMap) {
+        //Every terrain image has the same size
+        int tileSide = Math.max(1, Math.min(tiles[0].getWidth(),
+                MAX_TEXTURE_SIDE / Math.max(regionMap.getNumColumns(), regionMap.getNumRows())));
+        int width = regionMap.getNumColumns() * tileSide;
+        int height = regionMap.getNumRows() * tileSide;
+        boolean reuse = pixmap != null && pixmap.getWidth() == width && pixmap.getHeight() == height;
+        if (!reuse) {
+            disposeMap();
+            pixmap = new Pixmap(width, height, Pixmap.Format.RGBA8888);
+            pixmap.setBlending(Pixmap.Blending.None);
+            pixmap.setFilter(Pixmap.Filter.NearestNeighbour);
+        }
+        int y = 0;
+        for (List<Region> row : regionMap) {
+            int x = 0;
+            for (Region region : row) {
+                Pixmap tile = tiles[region.getTerrain().ordinal()];
+                if (tileSide == tile.getWidth())
+                    pixmap.drawPixmap(tile, x, y);
+                else
+                    pixmap.drawPixmap(tile, 0, 0, tile.getWidth(), tile.getHeight(), x, y, tileSide, tileSide);
+                x += tileSide;
+            }
+            y += tileSide;
+        }
+
+        //A managed texture cannot be drawn to, so a reused one is loaded again from the same pixmap
+        TextureData data = new PixmapTextureData(pixmap, null, false, false, true);
+        if (reuse) {
+            texture.load(data);
+        } else {
+            texture = new Texture(data);
+            texture.setFilter(Texture.TextureFilter.Nearest, Texture.TextureFilter.Nearest);
+            map = new TextureRegion(texture);
+        }
+    }
+
+    private void disposeMap() {
+        if (texture != null) {
+            texture.dispose();
+            pixmap.dispose();
+            texture = null;
+            pixmap = null;
+            map = null;
+            regionMap = null;
+        }
+    }
+
+    private void disposeTiles() {
+        for (int terrain = 0; terrain < tiles.length; terrain++) {
+            if (tiles[terrain] != null) {
+                tiles[terrain].dispose();
+                tiles[terrain] = null;
+            }
+        }
+        tileAtlas = null;
+    }
+}
@@ -0,0 +1,102 @@
+package com.laben.islands.Screens;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import com.badlogic.gdx.scenes.scene2d.Stage;
+import com.badlogic.gdx.utils.viewport.FitViewport;
+import com.laben.islands.IslandGame;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+/** Shows a progress bar while the assets of the next screen load in the background, then builds that screen and
+ * switches to it. The loading itself is driven by IslandGame a few milliseconds per frame, so this screen only draws.
+ * It draws with shapes alone, so it needs no assets of its own and can show before anything is loaded **/
+public class LoadingScreen extends AbstractScreen {
+
+    private static final Color BACKGROUND_COLOR = new Color(204f / 255f, 0, 102f / 255f, 1);
+    private static final float BAR_WIDTH = .6f; //Fraction of the screen width
+    private static final float BAR_HEIGHT = .04f; //Fraction of the screen height
+
+    private final IslandGame game;
+    private final Map<String, Class> assets;
+    private final Supplier<? extends AbstractScreen> nextScreen;
+    private final Stage stage;
+    private final ShapeRenderer shapes;
+    private float shownProgress; //Never goes back, even when more work is queued behind the screen's assets
+
+    //Waits for the given assets, which must already be requested, then switches to the screen the supplier builds
+    public LoadingScreen(IslandGame game, Map<String, Class> assets, Supplier<? extends AbstractScreen> nextScreen) {
+        this.game = game;
+        this.assets = assets;
+        this.nextScreen = nextScreen;
+        stage = new Stage(new FitViewport(IslandGame.getGameWidth(), IslandGame.getGameHeight()));
+        shapes = new ShapeRenderer();
+    }
+
+    @Override
+    public void show() {
+        setInputProcessor(game, stage);
+    }
+
+    @Override
+    public void render(float delta) {
+        if (game.getAssetCache().isLoaded(assets)) {
+            dispose();
+            AbstractScreen screen = nextScreen.get();
+            //The screen holds its assets now, so the hold that kept them from being evicted while loading can go
+            game.getAssetCache().release(assets.keySet());
+            game.setScreen(screen);
+            return;
+        }
+        shownProgress = Math.max(shownProgress, game.getAssetCache().getProgress());
+
+        Gdx.gl.glClearColor(BACKGROUND_COLOR.r, BACKGROUND_COLOR.g, BACKGROUND_COLOR.b, BACKGROUND_COLOR.a);
+        Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+        stage.getViewport().apply();
+        float barWidth = BAR_WIDTH * IslandGame.getGameWidth();
+        float barHeight = BAR_HEIGHT * IslandGame.getGameHeight();
+        float barX = (IslandGame.getGameWidth() - barWidth) / 2f;
+        float barY = (IslandGame.getGameHeight() - barHeight) / 2f;
+        shapes.setProjectionMatrix(stage.getCamera().combined);
+        shapes.begin(ShapeRenderer.ShapeType.Filled);
+        shapes.setColor(Color.DARK_GRAY);
+        shapes.rect(barX, barY, barWidth, barHeight);
+        shapes.setColor(Color.WHITE);
+        shapes.rect(barX, barY, barWidth * shownProgress, barHeight);
+        shapes.end();
+    }
+
+    @Override
+    public void resize(int width, int height) {
+        stage.getViewport().update(width, height, true);
+    }
+
+    @Override
+    public void pause() {
+
+    }
+
+    @Override
+    public void resume() {
+
+    }
+
+    @Override
+    public void hide() {
+
+    }
+
+    @Override
+    public void dispose() {
+        stage.dispose();
+        shapes.dispose();
+    }
+
+    @Override
+    public Stage getStage() {
+        return stage;
+    }
+}
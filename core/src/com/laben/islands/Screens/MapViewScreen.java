@@ -4,13 +4,15 @@ import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Screen;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
-import com.badlogic.gdx.math.GridPoint2;
 import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.scenes.scene2d.Actor;
 import com.badlogic.gdx.scenes.scene2d.InputEvent;
 import com.badlogic.gdx.scenes.scene2d.InputListener;
 import com.badlogic.gdx.scenes.scene2d.Stage;
+import com.badlogic.gdx.scenes.scene2d.Touchable;
 import com.badlogic.gdx.scenes.scene2d.ui.Image;
 import com.badlogic.gdx.scenes.scene2d.ui.Label;
 import com.badlogic.gdx.scenes.scene2d.ui.Table;
@@ -20,6 +22,7 @@ import com.badlogic.gdx.utils.viewport.FitViewport;
 import com.laben.islands.Island;
 import com.laben.islands.IslandGame;
 import com.laben.islands.Region;
+import com.laben.islands.RegionBoundaries;
 import com.laben.islands.Terrain;
 
 import java.util.*;
@@ -32,23 +35,27 @@ public class MapViewScreen extends AbstractScreen {
 
     private Stage stage; //The stage which manages the entire scene
     private Table rootTable;
-    private Table mapTable;
-    private String currentSelectedRegion = null;
+    private Image mapImage; //The whole map as one image, drawn once per level
+    private Island.IterableRegionMap regionMap;
+    private Region currentSelectedRegion = null;
     private TextureAtlas atlas;
     private Map<String, Class> assets;
     private Label selectedRegionLabel;
-    private Set<Image> currentShowingOutlines;
+    private RegionOutline regionOutline; //Draws the outline of the selected region
+
+    private static Map<String, Class> mapViewScreenAssets;
+
+    static {
+        mapViewScreenAssets = new HashMap<>();
+        mapViewScreenAssets.put(Terrain.MAP_VIEW_ATLAS_PATH, TextureAtlas.class);
+        mapViewScreenAssets.put("Fonts/MapViewRegionName.fnt", BitmapFont.class);
+    }
 
     //Pass in the game object
     public MapViewScreen(final IslandGame game) {
-        currentShowingOutlines = new HashSet<>();
-
         //Load necessary assets to manager
-        assets = new HashMap<>();
-        assets.put(Terrain.MAP_VIEW_ATLAS_PATH, TextureAtlas.class);
-        assets.put("Fonts/MapViewRegionName.fnt", BitmapFont.class);
-        IslandGame.loadAllAssets(game.getManager(), assets);
-        game.getManager().finishLoading();
+        assets = new HashMap<>(mapViewScreenAssets);
+        game.getAssetCache().acquire(assets);
         atlas = game.getManager().get(Terrain.MAP_VIEW_ATLAS_PATH, TextureAtlas.class);
 
         this.game = game;
@@ -66,8 +73,10 @@ public class MapViewScreen extends AbstractScreen {
         stage.addActor(rootTable);
         rootTable.setFillParent(true);
 
-        //Create table map
-        mapTable = initializedMapTable();
+        //Create map
+        regionMap = getGame().getCurrentIsland().getIterableRegionMap();
+        mapImage = new Image(game.getMapViewTexture().getMap(regionMap, atlas));
+        addRegionSelectionListener(mapImage);
 
         //Create label that states the currently selected reigon
         Label.LabelStyle regionLabelStyle = new Label.LabelStyle();
@@ -97,31 +106,35 @@ public class MapViewScreen extends AbstractScreen {
         stage.addActor(backArrow);
 
         /* format root table */
-        //Add mapTable
+        //Add map
         float leftPadding  = (.05f * (float)IslandGame.GAME_WIDTH);
         float topBottomPadding = (float)(5.0 / 60.0 * (float)IslandGame.GAME_HEIGHT);
         rootTable.row().height((float)(5.0 / 6.0 * (float)IslandGame.GAME_HEIGHT));
-        rootTable.add(mapTable).expand().width((float)(.5 * (double)IslandGame.GAME_WIDTH)).
+        rootTable.add(mapImage).expand().width((float)(.5 * (double)IslandGame.GAME_WIDTH)).
                         padLeft(leftPadding).padTop(topBottomPadding).padBottom(topBottomPadding).left();
         //Add region label
         rootTable.add(selectedRegionLabel).padRight(topBottomPadding / 3.0f).width(labelWidth).left();
 
         rootTable.validate();
-        mapTable.validate();
 
         //Add current location marker
         Image redDot = new Image(atlas.findRegion("reddot"));
-        redDot.setSize(mapTable.getColumnWidth(0), mapTable.getRowHeight(0));
-        float xStartPos = mapTable.localToStageCoordinates(new Vector2(0, 0)).x;
-        float yStartPos = mapTable.localToStageCoordinates(new Vector2(0, 0)).y;
-        float xMod = mapTable.getWidth() / (float)mapTable.getColumns() * (float)getGame().getCurrentTile()
-                .getCoordinates().x;
-        float yMod = mapTable.getHeight() / (float)mapTable.getRows() *
-                ((float)mapTable.getRows() - 1 - (float)getGame().getCurrentTile().getCoordinates().y);
+        float cellWidth = mapImage.getWidth() / (float)regionMap.getNumColumns();
+        float cellHeight = mapImage.getHeight() / (float)regionMap.getNumRows();
+        redDot.setSize(cellWidth, cellHeight);
+        float xStartPos = mapImage.localToStageCoordinates(new Vector2(0, 0)).x;
+        float yStartPos = mapImage.localToStageCoordinates(new Vector2(0, 0)).y;
+        float xMod = cellWidth * (float)(getGame().getCurrentTile().getCoordinates().x - regionMap.getOriginX());
+        float yMod = cellHeight * ((float)regionMap.getNumRows() - 1 -
+                (float)(getGame().getCurrentTile().getCoordinates().y - regionMap.getOriginY()));
         redDot.setPosition(xStartPos + xMod, yStartPos + yMod);
         addInputListenerToMapTile(redDot, getGame().getCurrentTile().getRegion());
         stage.addActor(redDot);
         redDot.toFront();
+
+        //Outlines go over everything else
+        regionOutline = new RegionOutline(regionMap.getRegionBoundaries());
+        stage.addActor(regionOutline);
     }
 
     public IslandGame getGame() {
@@ -164,134 +177,12 @@ public class MapViewScreen extends AbstractScreen {
     @Override
     public void dispose() {
         stage.dispose();
-        IslandGame.unloadAllAssets(game.getManager(), assets.keySet());
-        atlas.dispose();
-    }
-
-    private Table initializedMapTable() {
-        Island.IterableRegionMap regionMap = getGame().getCurrentIsland().getIterableRegionMap();
-        Table table = new Table();
-        table.setRound(false);
-        //Get image files for each terrain type
-        Map<Terrain, TextureAtlas.AtlasRegion> terrainAtlasRegionMap = new HashMap<>();
-        for (Terrain terrain : Terrain.TERRAIN_SET) {
-            terrainAtlasRegionMap.put(terrain, atlas.findRegion(terrain.toString()));
-        }
-        //Iterate through each row
-        int rowNum = 0;
-        int colNum = 0;
-        for (List<Region> row : regionMap) {
-            //Iterate through each tile in row's region
-            for (Region region : row) {
-                Image image = new Image(terrainAtlasRegionMap.get(region.getTerrain()));
-                addInputListenerToMapTile(image, region);
-                table.add(image).uniform().expand().fill();
-                colNum++;
-            }
-            table.row();
-            rowNum++;
-        }
-        return table;
-    }
-
-    //Adds image actors which draw an outline over the currently selected region
-    private void addSelectedRegionOutline() {
-        //Remove all previous
-        for (Image image: currentShowingOutlines)
-            image.remove();
-        currentShowingOutlines.clear();
-        int[][] numMap = getGame().getCurrentIsland().getIterableRegionMap().getNumericalMap();
-        Map<Integer, Region> integerRegionConversionChart = getGame().getCurrentIsland().getIterableRegionMap().getRegionIntegerConversionChart();
-        //Iterate through every tile in map
-        for (int x = 0; x < numMap.length; x++) {
-            for (int y = 0; y < numMap[0].length; y++) {
-                //If this is the currently selected region, then draw border lines
-                if (currentSelectedRegion.equals(integerRegionConversionChart.get(numMap[x][y]).toString())) {
-                    addTileOutline(new GridPoint2(x, y));
-                }
-            }
-        }
-    }
-
-    //Adds outline to a specific tile on the map
-    private void addTileOutline(GridPoint2 tileGridLocation) {
-        int x = tileGridLocation.x;
-        int y = tileGridLocation.y;
-        int[][] numMap = getGame().getCurrentIsland().getIterableRegionMap().getNumericalMap();
-        int value = numMap[x][y];
-        //Determine which sides of the tile need the outline
-        BitSet outlineLocations = new BitSet(4); //outline locations represented via binary: top, right, bottom, left
-        //If right needs outline:
-        if (x == numMap.length - 1 || numMap[x + 1][y] != value) {
-            outlineLocations.set(1);
-            addVerticalLine(tileGridLocation, false, outlineLocations);
-        }
-        //If left needs outline:
-        if (x == 0 || numMap[x - 1][y] != value) {
-            outlineLocations.set(3);
-            addVerticalLine(tileGridLocation, true, outlineLocations);
-        }
-        //If top needs outline:
-        if (y == 0 || numMap[x][y - 1] != value) {
-            outlineLocations.set(0);
-            addHorizontalLine(tileGridLocation, true, outlineLocations);
-        }
-        //If bottom needs outline:
-        if (y == numMap[0].length - 1 || numMap[x][y + 1] != value) {
-            outlineLocations.set(2);
-            addHorizontalLine(tileGridLocation, false, outlineLocations);
-        }
+        game.getAssetCache().release(assets.keySet());
     }
 
-    //Adds a vertical line image at the given point on the graph. isLeft determines which side to add it to
-    private void addVerticalLine(GridPoint2 pointOnGraph, boolean isLeft, BitSet outlineLocations) {
-        Image line = new Image(atlas.findRegion("RegionOutlineVertical"));
-        currentShowingOutlines.add(line);
-        stage.addActor(line);
-        line.toFront();
-        line.setSize(mapTable.getRowHeight(0) * line.getWidth() / line.getHeight(),
-                mapTable.getRowHeight(0));
-        float startingXPos = mapTable.localToStageCoordinates(new Vector2(0, 0)).x;
-        float startingYPos = mapTable.localToStageCoordinates(new Vector2(0, 0)).y;
-        //x mod = width of each cell * (graph point x (+ 1 if on right), then if on right subtract width of line
-        float xMod = mapTable.getWidth() / (float)mapTable.getColumns() * ((float)pointOnGraph.x + (isLeft ?  0f : 1f));
-        if (!isLeft)
-            xMod -= line.getWidth();
-        //y mod calculation is mostly the same, except it accounts for the libgdx (0,0) in bottom left and fixed spot
-        float yMod = mapTable.getHeight() / (float)mapTable.getRows() *
-                ((float)mapTable.getRows() - 1 - (float)pointOnGraph.y);
-
-        line.setPosition(startingXPos + xMod, startingYPos + yMod);
-    }
-
-    //Adds a horizontal line image at the given point on the graph. isTop determines which side to add it to
-    private void addHorizontalLine(GridPoint2 pointOnGraph, boolean isTop, BitSet outlineLocations) {
-        Image line = new Image(atlas.findRegion("RegionOutlineHorizontal"));
-        currentShowingOutlines.add(line);
-        stage.addActor(line);
-        line.toFront();
-        line.setSize(mapTable.getColumnWidth(0),
-                mapTable.getColumnWidth(0) * line.getHeight() / line.getWidth());
-        float startingXPos = mapTable.localToStageCoordinates(new Vector2(0, 0)).x;
-        float startingYPos = mapTable.localToStageCoordinates(new Vector2(0, 0)).y;
-        //calculate xmod
-        float xMod = mapTable.getWidth() / (float)mapTable.getColumns() * (float)pointOnGraph.x;
-        //calculate ymod
-        float yMod = mapTable.getHeight() / (float)mapTable.getRows() *
-                ((float)mapTable.getRows() - 1 - (float)pointOnGraph.y + (isTop ? 1 : 0));
-        //Adjust size to remove gaps in corners of outlines:
-        //If no border to right
-        if (!outlineLocations.get(1))
-            line.setSize(line.getWidth() + line.getHeight(), line.getHeight());
-        //If no border to left
-        if (!outlineLocations.get(3)) {
-            line.setSize(line.getWidth() + line.getHeight(), line.getHeight());
-            xMod -= line.getHeight();
-        }
-        if (isTop)
-            yMod -= line.getHeight();
-
-        line.setPosition(startingXPos + xMod, startingYPos + yMod);
+    //Every asset the screen acquires
+    public static Map<String, Class> getScreenAssets() {
+        return mapViewScreenAssets;
     }
 
     //All elements of the screen to be graphically rendered
@@ -305,25 +196,50 @@ public class MapViewScreen extends AbstractScreen {
     private void executeScripts() {
     }
 
-    public String getCurrentSelectedRegion() {
+    public Region getCurrentSelectedRegion() {
         return currentSelectedRegion;
     }
 
-    public void setCurrentSelectedRegion(String currentSelectedRegion) {
+    public void setCurrentSelectedRegion(Region currentSelectedRegion) {
         this.currentSelectedRegion = currentSelectedRegion;
         //Change label's text
-        String[] twoPartsOfName = currentSelectedRegion.split("\\s+");
-        StringBuilder splitUpName = new StringBuilder(twoPartsOfName[0]);
+        StringBuilder splitUpName = new StringBuilder(currentSelectedRegion.getName());
         splitUpName.append("\n");
-        splitUpName.append(game.getGeneralBundle().get(twoPartsOfName[1]));
+        splitUpName.append(game.getGeneralBundle().get(currentSelectedRegion.getTerrain().toString()));
         getSelectedRegionLabel().setText(splitUpName);
-        addSelectedRegionOutline();
+        regionOutline.setRegion(regionMap.getRegionNumber(currentSelectedRegion));
     }
 
     public Label getSelectedRegionLabel() {
         return selectedRegionLabel;
     }
 
+    //Selects the region of whichever tile of the map is touched
+    private void addRegionSelectionListener(final Image map) {
+
+        map.addListener(new InputListener() {
+
+            private Region touchedRegion; //The region of the tile the touch went down on
+
+            @Override
+            public boolean touchDown(InputEvent event, float x, float y, int pointer, int button) {
+                //Clamped, since a touch on the map's very edge can land just past its last tile
+                int column = Math.min((int)(x / map.getWidth() * regionMap.getNumColumns()),
+                        regionMap.getNumColumns() - 1);
+                int row = Math.min((int)((map.getHeight() - y) / map.getHeight() * regionMap.getNumRows()),
+                        regionMap.getNumRows() - 1);
+                touchedRegion = regionMap.getRegionIntegerConversionChart()
+                        .get(regionMap.getNumericalMap()[Math.max(column, 0)][Math.max(row, 0)]);
+                return true;
+            }
+
+            @Override
+            public void touchUp(InputEvent event, float x, float y, int pointer, int button) {
+                setCurrentSelectedRegion(touchedRegion);
+            }
+        });
+    }
+
     private void addInputListenerToMapTile(Image mapTile, final Region region) {
 
         mapTile.addListener(new InputListener() {
@@ -335,7 +251,7 @@ public class MapViewScreen extends AbstractScreen {
 
             @Override
             public void touchUp(InputEvent event, float x, float y, int pointer, int button) {
-                setCurrentSelectedRegion(region.toString());
+                setCurrentSelectedRegion(region);
             }
         });
     }
@@ -344,4 +260,69 @@ public class MapViewScreen extends AbstractScreen {
     public Stage getStage() {
         return stage;
     }
+
+    /* Draws the outline of a single region of the map straight from the island's precomputed boundary segments, one
+     * batch draw per segment, so selecting another region only changes which segments are drawn. The lines are placed
+     * the same way the old per-tile outline images were: inside the region, with horizontal lines stretched by a line
+     * width wherever they meet a vertical line around a corner */
+    private class RegionOutline extends Actor {
+
+        private final RegionBoundaries boundaries;
+        private final TextureAtlas.AtlasRegion verticalLine;
+        private final TextureAtlas.AtlasRegion horizontalLine;
+        private final Vector2 mapOrigin;
+        private int region = -1; //The number of the region on the map, -1 for none
+
+        RegionOutline(RegionBoundaries boundaries) {
+            this.boundaries = boundaries;
+            verticalLine = atlas.findRegion("RegionOutlineVertical");
+            horizontalLine = atlas.findRegion("RegionOutlineHorizontal");
+            mapOrigin = new Vector2();
+            setTouchable(Touchable.disabled);
+        }
+
+        void setRegion(int region) {
+            this.region = region;
+        }
+
+        @Override
+        public void draw(Batch batch, float parentAlpha) {
+            if (boundaries.getNumSegments(region) == 0)
+                return;
+            Color color = getColor();
+            batch.setColor(color.r, color.g, color.b, color.a * parentAlpha);
+            mapImage.localToStageCoordinates(mapOrigin.set(0, 0));
+            int numRows = regionMap.getNumRows();
+            float cellWidth = mapImage.getWidth() / (float)regionMap.getNumColumns();
+            float cellHeight = mapImage.getHeight() / (float)numRows;
+            //Line widths keep the aspect ratio of the line images
+            float verticalWidth = cellHeight * verticalLine.getRegionWidth() / verticalLine.getRegionHeight();
+            float horizontalHeight = cellWidth * horizontalLine.getRegionHeight() / horizontalLine.getRegionWidth();
+            for (int i = 0; i < boundaries.getNumSegments(region); i++) {
+                int x = boundaries.getSegmentX(region, i);
+                int y = boundaries.getSegmentY(region, i);
+                int length = boundaries.getSegmentLength(region, i);
+                int flags = boundaries.getSegmentFlags(region, i);
+                boolean farSide = (flags & RegionBoundaries.FAR_SIDE) != 0;
+                if ((flags & RegionBoundaries.VERTICAL) != 0) {
+                    //The map's y axis points down, the stage's up, so the segment is drawn up from its last tile
+                    float lineX = mapOrigin.x + cellWidth * (x + (farSide ? 1 : 0)) - (farSide ? verticalWidth : 0);
+                    float lineY = mapOrigin.y + cellHeight * (numRows - y - length);
+                    batch.draw(verticalLine, lineX, lineY, verticalWidth, cellHeight * length);
+                } else {
+                    float lineX = mapOrigin.x + cellWidth * x;
+                    float lineWidth = cellWidth * length;
+                    if ((flags & RegionBoundaries.EXTEND_START) != 0) {
+                        lineX -= horizontalHeight;
+                        lineWidth += horizontalHeight;
+                    }
+                    if ((flags & RegionBoundaries.EXTEND_END) != 0)
+                        lineWidth += horizontalHeight;
+                    float lineY = mapOrigin.y + cellHeight * (numRows - 1 - y + (farSide ? 0 : 1)) -
+                            (farSide ? 0 : horizontalHeight);
+                    batch.draw(horizontalLine, lineX, lineY, lineWidth, horizontalHeight);
+                }
+            }
+        }
+    }
 }
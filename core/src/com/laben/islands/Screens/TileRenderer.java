@@ -0,0 +1,116 @@
+package com.laben.islands.Screens;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.scenes.scene2d.Actor;
+import com.laben.islands.IslandGame;
+import com.laben.islands.Terrain;
+import com.laben.islands.Tile;
+import com.laben.islands.TileStore;
+
+import java.util.*;
+
+/** Draws the tile the player is standing on as a single actor: the grid of background, grass and rock cells and then
+ * the trees, back to front. Every texture region is looked up in the atlas once, up front, and kept in arrays indexed by
+ * terrain and graphics item, so switching tiles only copies references and drawing is a loop of batch.draw calls with
+ * no actors, strings or lookups involved. The cells fill the actor's bounds, laid out like the old table of images:
+ * row 0 at the top.
+ */
+class TileRenderer extends Actor {
+
+    private static final int SIDE = TileStore.GRAPHICS_TABLE_SIDE;
+    private static final float TREE_WIDTH = GameScreen.GAME_TABLE_WIDTH / 7f;
+    private static final float TREE_HEIGHT = GameScreen.GAME_TABLE_HEIGHT / 7f * 3f;
+
+    private final TextureRegion[][] cellRegions; //[terrain ordinal][graphics item ordinal]
+    private final TextureRegion[] treeRegions; //[terrain ordinal]
+    private final TextureRegion[] cells = new TextureRegion[SIDE * SIDE]; //The current tile's cells, row by row
+    private TextureRegion treeRegion;
+    private float[] treeX = new float[16]; //Relative to the actor, drawn in order
+    private float[] treeY = new float[16];
+    private int numTrees;
+
+    TileRenderer(TextureAtlas atlas) {
+        Tile.GraphicsItem[] items = Tile.GraphicsItem.values();
+        cellRegions = new TextureRegion[Terrain.count()][items.length];
+        treeRegions = new TextureRegion[Terrain.count()];
+        for (Terrain terrain : Terrain.values()) {
+            for (Tile.GraphicsItem item : items)
+                cellRegions[terrain.ordinal()][item.ordinal()] = atlas.findRegion(terrain.toString() + modifier(item));
+            treeRegions[terrain.ordinal()] = atlas.findRegion(terrain.toString() + "Tree");
+        }
+    }
+
+    //Points the renderer at the given tile
+    void setTile(Tile tile) {
+        int terrain = tile.getRegion().getTerrain().ordinal();
+        for (int row = 0; row < SIDE; row++) {
+            for (int column = 0; column < SIDE; column++)
+                cells[row * SIDE + column] = cellRegions[terrain][tile.getGraphicsItem(row, column).ordinal()];
+        }
+        treeRegion = treeRegions[terrain];
+        collectTrees(tile.getTrees());
+    }
+
+    //The number of sprites drawn for the current tile
+    int getNumSprites() {
+        return cells.length + numTrees;
+    }
+
+    @Override
+    public void draw(Batch batch, float parentAlpha) {
+        Color color = getColor();
+        batch.setColor(color.r, color.g, color.b, color.a * parentAlpha);
+        float cellWidth = getWidth() / SIDE;
+        float cellHeight = getHeight() / SIDE;
+        float top = getY() + getHeight();
+        for (int row = 0; row < SIDE; row++) {
+            float y = top - (row + 1) * cellHeight;
+            for (int column = 0; column < SIDE; column++)
+                batch.draw(cells[row * SIDE + column], getX() + column * cellWidth, y, cellWidth, cellHeight);
+        }
+        for (int tree = 0; tree < numTrees; tree++)
+            batch.draw(treeRegion, getX() + treeX[tree], getY() + treeY[tree], TREE_WIDTH, TREE_HEIGHT);
+    }
+
+    /* Places the trees of every corner, starting in the top left and moving clockwise, then sorts them from the top of
+     * the screen down so that lower trees are drawn over the ones behind them */
+    private void collectTrees(Tile.Trees trees) {
+        numTrees = 0;
+        float width = GameScreen.GAME_TABLE_WIDTH;
+        float height = GameScreen.GAME_TABLE_HEIGHT;
+        float cornerSize = Tile.TREE_CORNER_SIDE_SIZE;
+        float yOffset = (IslandGame.GAME_HEIGHT - height) / 2f;
+        for (int corner = 0; corner < 4; corner++) {
+            float cornerX = corner == 1 || corner == 2 ? width - cornerSize - TREE_WIDTH : 0;
+            float cornerY = corner < 2 ? height - cornerSize - TREE_HEIGHT : 0;
+            for (int tree = 0; tree < trees.getNumTrees(corner); tree++) {
+                if (numTrees == treeX.length) {
+                    treeX = Arrays.copyOf(treeX, numTrees * 2);
+                    treeY = Arrays.copyOf(treeY, numTrees * 2);
+                }
+                float x = cornerX + trees.getTreeX(corner, tree);
+                float y = cornerY + trees.getTreeY(corner, tree) - yOffset;
+                //Insertion sort, highest first. There are only a few dozen trees at most
+                int position = numTrees++;
+                while (position > 0 && treeY[position - 1] < y) {
+                    treeX[position] = treeX[position - 1];
+                    treeY[position] = treeY[position - 1];
+                    position--;
+                }
+                treeX[position] = x;
+                treeY[position] = y;
+            }
+        }
+    }
+
+    private static String modifier(Tile.GraphicsItem item) {
+        if (item.equals(Tile.GraphicsItem.ROCK))
+            return "Rock";
+        else if (item.equals(Tile.GraphicsItem.GRASS))
+            return "Grass";
+        else return "Background";
+    }
+}
@@ -2,18 +2,19 @@ package com.laben.islands;
 
 import java.util.*;
 
-/** Represents the terrain and its properties**/
-public class Terrain {
-
-    public static final Terrain WOODS = new Terrain("Woods", 1, "WoodsBackground", 3.2);
-    public static final Terrain DESERT = new Terrain("Desert", 4, "DesertBackground", .4);
-    public static final Terrain PLAINS = new Terrain("Plains", 1, "PlainsBackground", .6);
-    public static final Terrain TUNDRA = new Terrain("Tundra", 24, "TundraBackground", .75);
-    public static final Terrain SWAMP = new Terrain("Swamp", 14, "SwampBackground", .5);
-    public static final Terrain JUNGLE = new Terrain("Jungle", 34, "JungleBackground", 4);
-
-    public static final Set<Terrain> TERRAIN_SET = new HashSet<>(Arrays.asList(
-            WOODS, DESERT, PLAINS, TUNDRA, SWAMP, JUNGLE));
+/** Represents the terrain and its properties. Being an enum, sets and maps of terrain can be EnumSets and EnumMaps and
+ * a set of terrain can be passed around as an int mask with the bit 1 << ordinal() of every terrain in it set **/
+public enum Terrain {
+
+    WOODS("Woods", 1, "WoodsBackground", 3.2),
+    DESERT("Desert", 4, "DesertBackground", .4),
+    PLAINS("Plains", 1, "PlainsBackground", .6),
+    TUNDRA("Tundra", 24, "TundraBackground", .75),
+    SWAMP("Swamp", 14, "SwampBackground", .5),
+    JUNGLE("Jungle", 34, "JungleBackground", 4);
+
+    private static final Terrain[] VALUES = values(); //Indexed by ordinal
+    public static final Set<Terrain> TERRAIN_SET = Collections.unmodifiableSet(EnumSet.allOf(Terrain.class));
     public static final String MAP_VIEW_ATLAS_PATH = "MapViewTextures.atlas";
 
 
@@ -23,7 +24,7 @@ public class Terrain {
     private final String backgroundImage; //The background image used when drawing the Game Screen
     private final double treesPerCorner; //Avg number of trees per corner in that terrain
 
-    private Terrain(String name, int startingLevel, String backgroundImage, double treesPerCorner) {
+    Terrain(String name, int startingLevel, String backgroundImage, double treesPerCorner) {
         this.name = name;
         this.startingLevel = startingLevel;
         this.backgroundImage = backgroundImage;
@@ -35,18 +36,21 @@ public class Terrain {
         return name;
     }
 
-    @Override
-    public boolean equals(Object o) {
-        return o instanceof Terrain && o.toString().equals(this.toString());
+    int getStartingLevel() {
+        return startingLevel;
     }
 
-    @Override
-    public int hashCode() {
-        return this.toString().hashCode();
+    //The number of terrains, and so the number of bits a terrain mask uses
+    public static int count() {
+        return VALUES.length;
     }
 
-    private int getStartingLevel() {
-        return startingLevel;
+    //Returns a mask with the bit of every given terrain set
+    public static int maskOf(Collection<Terrain> terrainSet) {
+        int mask = 0;
+        for (Terrain terrain : terrainSet)
+            mask |= 1 << terrain.ordinal();
+        return mask;
     }
 
     public double getTreesPerCorner() {
@@ -59,46 +63,37 @@ public class Terrain {
 
     //Given the current level, will determine a random terrain
     public static Terrain randomTerrain(int level) {
-        return randomTerrain(level, new HashSet<Terrain>());
+        return randomTerrain(level, 0, new SplittableRandom());
     }
 
     //Given the current level and a set of illegal terrain options, returns a random terrain
-    @SuppressWarnings("unchecked")
     public static Terrain randomTerrain(int level, Set<Terrain> illegalTerrain) {
-        //Determine the relative probabilities of all available terrain
-        Set<Terrain> availableTerrain = (Set<Terrain>)(((HashSet<Terrain>) TERRAIN_SET).clone());
-        availableTerrain.removeAll(illegalTerrain);
-        Map<Terrain, Double> relativeProbabilities = relativeProbabilities(level, availableTerrain);
-        //Calculate sum of relative probabilities
-        Double sumOfProbabilities = 0.0;
-        for (Double probability : relativeProbabilities.values())
-            sumOfProbabilities += probability;
-        //Calculate absolute probabilities
-        Map<Terrain, Double> absoluteProbabilities = new HashMap<>();
-        for (Terrain terrain : relativeProbabilities.keySet())
-            absoluteProbabilities.put(terrain, relativeProbabilities.get(terrain) / sumOfProbabilities);
-        //Randomly choose terrain based off of its absolute probability
-        double p = new Random().nextDouble();
-        double cumulativeProbability = 0.0;
-        for  (Terrain terrain : absoluteProbabilities.keySet()) {
-            cumulativeProbability += absoluteProbabilities.get(terrain);
-            if (p <= cumulativeProbability)
-                return terrain;
-        }
-        throw new RuntimeException("Probabilities were somehow inaccurately calculated");
+        return randomTerrain(level, illegalTerrain, new SplittableRandom());
     }
 
-    /*Given the current level, and a set of terrain, generates a Map which corresponds each given terrain with
-      a relative probability ranging from 0 to 1 inclusive*/
-    private static Map<Terrain, Double> relativeProbabilities(int level, Set<Terrain> terrainSet) {
-        Map<Terrain, Double> relativeProbabilities = new HashMap<>();
-        for (Terrain terrain : terrainSet)
-            relativeProbabilities.put(terrain, relativeProbabilityOfTerrain(level, terrain));
-        return relativeProbabilities;
+    //Given the current level, a set of illegal terrain options and the random stream to draw from, returns a terrain
+    public static Terrain randomTerrain(int level, Set<Terrain> illegalTerrain, SplittableRandom random) {
+        return randomTerrain(level, maskOf(illegalTerrain), random);
+    }
+
+    /* Given the current level, a mask of illegal terrain (see maskOf) and the random stream to draw from, returns a
+     * terrain. Draws a single double from the stream and does not allocate */
+    public static Terrain randomTerrain(int level, int illegalMask, SplittableRandom random) {
+        return TerrainSampler.of(level, illegalMask).sample(random);
+    }
+
+    //Given the current level, returns every terrain that has a chance of being randomly selected
+    public static Set<Terrain> availableTerrain(int level) {
+        Set<Terrain> availableTerrain = EnumSet.noneOf(Terrain.class);
+        for (Terrain terrain : VALUES) {
+            if (relativeProbabilityOfTerrain(level, terrain) > 0)
+                availableTerrain.add(terrain);
+        }
+        return availableTerrain;
     }
 
     //Given the current level and a specific terrain, returns the relative probability (0-1) of that terrain
-    private static double relativeProbabilityOfTerrain(int level, Terrain terrain) {
+    static double relativeProbabilityOfTerrain(int level, Terrain terrain) {
         double lv = level;
         if (lv < .5 * (double)terrain.getStartingLevel())
             return 0;
@@ -0,0 +1,89 @@
+package com.laben.islands;
+
+import java.util.*;
+
+/** Picks random terrain for a given level with some terrain ruled out, in constant time, using Vose's alias method.
+ * Every terrain with a chance of being picked gets a column of equal width. Each column holds the probability of
+ * keeping its own terrain and the terrain it hands the rest of its width to. Samplers are built the first time a
+ * (level, illegal terrain mask) pair is asked for and cached from then on. Above the highest starting level every
+ * level has the same probabilities, so only a few hundred samplers can ever exist.
+ */
+final class TerrainSampler {
+
+    private static final int MAX_LEVEL; //Every level from here up shares its probabilities
+    private static final TerrainSampler[] CACHE; //Indexed by clamped level * number of masks + mask
+
+    static {
+        int maxLevel = 0;
+        for (Terrain terrain : Terrain.values())
+            maxLevel = Math.max(maxLevel, terrain.getStartingLevel());
+        MAX_LEVEL = maxLevel;
+        CACHE = new TerrainSampler[(MAX_LEVEL + 1) << Terrain.count()];
+    }
+
+    private final Terrain[] terrain; //The terrain of every column
+    private final double[] keepProbabilities; //Chance of a column keeping its own terrain
+    private final Terrain[] aliases; //The terrain a column hands the rest of its width to
+
+    private TerrainSampler(int level, int illegalMask) {
+        List<Terrain> options = new ArrayList<>();
+        List<Double> weights = new ArrayList<>();
+        double sumOfWeights = 0;
+        for (Terrain option : Terrain.values()) {
+            double weight = Terrain.relativeProbabilityOfTerrain(level, option);
+            if ((illegalMask & (1 << option.ordinal())) == 0 && weight > 0) {
+                options.add(option);
+                weights.add(weight);
+                sumOfWeights += weight;
+            }
+        }
+        if (options.isEmpty())
+            throw new RuntimeException("No terrain can be picked at level " + level + " with mask " + illegalMask);
+        int numColumns = options.size();
+        terrain = options.toArray(new Terrain[0]);
+        keepProbabilities = new double[numColumns];
+        aliases = terrain.clone();
+        //Scale every weight so that the average is 1, then let the heavy columns fill up the light ones
+        double[] scaled = new double[numColumns];
+        Deque<Integer> light = new ArrayDeque<>();
+        Deque<Integer> heavy = new ArrayDeque<>();
+        for (int i = 0; i < numColumns; i++) {
+            scaled[i] = weights.get(i) * numColumns / sumOfWeights;
+            (scaled[i] < 1 ? light : heavy).add(i);
+        }
+        while (!light.isEmpty() && !heavy.isEmpty()) {
+            int lightColumn = light.poll();
+            int heavyColumn = heavy.peek();
+            keepProbabilities[lightColumn] = scaled[lightColumn];
+            aliases[lightColumn] = terrain[heavyColumn];
+            scaled[heavyColumn] -= 1 - scaled[lightColumn];
+            if (scaled[heavyColumn] < 1)
+                light.add(heavy.poll());
+        }
+        //Whatever is left is full up to rounding errors
+        for (Integer column : light)
+            keepProbabilities[column] = 1;
+        for (Integer column : heavy)
+            keepProbabilities[column] = 1;
+    }
+
+    //Returns the sampler of the given level and mask of illegal terrain, building it if it was never asked for
+    static TerrainSampler of(int level, int illegalMask) {
+        int clampedLevel = Math.max(0, Math.min(level, MAX_LEVEL));
+        int index = (clampedLevel << Terrain.count()) | illegalMask;
+        TerrainSampler sampler = CACHE[index];
+        if (sampler == null) {
+            //Two threads may build the same sampler, which is harmless since they are immutable
+            sampler = new TerrainSampler(clampedLevel, illegalMask);
+            CACHE[index] = sampler;
+        }
+        return sampler;
+    }
+
+    //Picks a terrain using a single double drawn from the stream
+    Terrain sample(SplittableRandom random) {
+        double position = random.nextDouble() * terrain.length;
+        int column = (int)position;
+        return position - column < keepProbabilities[column] ? terrain[column] : aliases[column];
+    }
+}
@@ -2,35 +2,29 @@ package com.laben.islands;
 
 import com.badlogic.gdx.math.GridPoint2;
 import com.badlogic.gdx.math.Vector2;
-import com.laben.islands.Screens.GameScreen;
 
 import java.util.*;
 
 
-/** This class represents a Tile which is part of an Island and all things contained within the tile **/
+/** This class represents a Tile which is part of an Island and all things contained within the tile. A Tile is only a
+ * light view onto the TileStore holding it, so any number of Tile objects may exist for the same location **/
 public class Tile {
 
-    private static final double ROCK_CHANCE = .00204;
-    private static final double GRASS_CHANCE = .08163;
     public static final float TREE_CORNER_SIDE_SIZE = (float) IslandGame.GAME_WIDTH * .1f;
 
     public enum GraphicsItem {EMPTY, GRASS, ROCK} //Randomly generated images purely for aesthetics
 
-    private final Region region; //The region this tile is apart of
     private final Island island; //The Island object this tile is contained within
     private final GridPoint2 coordinates; //The coordinates on the Island in which this tile is located
-    private boolean hasTreasure; //Whether or not the treasure is located on this tile
-    private final GraphicsItem[][] graphicsItemsTable; //[y][x] format
-    private final Trees trees;
+    private final TileStore store; //The store holding the contents of this tile
+    private final int index; //The index of this tile in its store
 
-    //Generates a Tile given it's region, island, coordinates on the island, and level
-    public Tile(Region region, Island island, GridPoint2 coordinates, int level) {
-        this.region = region;
+    //Creates a view of the tile at the given coordinates of the island, stored at the given index of the store
+    Tile(Island island, GridPoint2 coordinates, TileStore store, int index) {
         this.island = island;
         this.coordinates = coordinates;
-        hasTreasure = false; //defaults to false
-        graphicsItemsTable = generatedGraphicsItemsTable();
-        trees = new Trees();
+        this.store = store;
+        this.index = index;
     }
 
     //Returns null if no tile is above this one
@@ -65,12 +59,22 @@ public class Tile {
         return null;
     }
 
+    //Returns a copy of this tile's graphics items in [y][x] format
     public GraphicsItem[][] getGraphicsItemsTable() {
-        return graphicsItemsTable;
+        GraphicsItem[][] table = new GraphicsItem[TileStore.GRAPHICS_TABLE_SIDE][TileStore.GRAPHICS_TABLE_SIDE];
+        for (int row = 0; row < table.length; row++) {
+            for (int column = 0; column < table[0].length; column++)
+                table[row][column] = getGraphicsItem(row, column);
+        }
+        return table;
+    }
+
+    public GraphicsItem getGraphicsItem(int row, int column) {
+        return store.getGraphicsItem(index, row, column);
     }
 
     public Region getRegion() {
-        return region;
+        return store.getRegion(index);
     }
 
     public Island getIsland() {
@@ -82,32 +86,28 @@ public class Tile {
     }
 
     public boolean hasTreasure() {
-        return hasTreasure;
+        return store.hasTreasure(index);
     }
 
     public void setHasTreasure(boolean hasTreasure) {
-        this.hasTreasure = hasTreasure;
+        store.setHasTreasure(index, hasTreasure);
     }
 
     public Trees getTrees() {
-        return trees;
-    }
-
-    private static GraphicsItem[][] generatedGraphicsItemsTable() {
-        GraphicsItem[][] table = new GraphicsItem[7][7];
-        for (int x = 0; x < table.length; x++) {
-            for (int y = 0; y < table[0].length; y++) {
-                //Generate random item
-                Random random = new Random();
-                double p = random.nextDouble();
-                if (p < ROCK_CHANCE)
-                    table[x][y] = GraphicsItem.ROCK;
-                else if (p < GRASS_CHANCE + ROCK_CHANCE)
-                    table[x][y] = GraphicsItem.GRASS;
-                else table[x][y] = GraphicsItem.EMPTY;
-            }
-        }
-        return table;
+        return new Trees();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Tile tile = (Tile) o;
+        return island == tile.island && coordinates.equals(tile.coordinates);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * System.identityHashCode(island) + coordinates.hashCode();
     }
 
     private static boolean coordinatesInBounds(GridPoint2 coordinatePair, Island island) {
@@ -115,71 +115,26 @@ public class Tile {
                 0 <= coordinatePair.y && coordinatePair.y < island.getHeight();
     }
 
-    /* Represents all of the trees */
+    /* Represents all of the trees. Corners start at 0 in the top left and go clockwise */
     public class Trees {
-        private final Map<Integer, Set<Vector2>> treeCorners;
-        private final Random random;
-
-        public Trees() {
-            treeCorners = new HashMap<>();
-            for (int i = 0; i < 4; i++)
-                treeCorners.put(i, new HashSet<Vector2>());
-            random = new Random();
-            //Generate trees 1 corner at a time
-            for (int j = 0; j < 4; j++) {
-                int numTrees = (int) Math.round(region.getTerrain().getTreesPerCorner() + random.nextGaussian() *
-                        region.getTerrain().getTreesPerCorner() * .3);
-                if (numTrees > 0) {
-                    for (int i = 0; i < numTrees; i++)
-                        generateTree(j);
-                }
-            }
-        }
 
-        //Corners start at 0 in the top left and go clockwise
-        private void generateTree(int corner) {
-            Vector2 treePos = new Vector2(random.nextFloat() * TREE_CORNER_SIDE_SIZE,
-                    random.nextFloat() * TREE_CORNER_SIDE_SIZE);
-            if (validTreePos(treePos, corner))
-                treeCorners.get(corner).add(treePos);
+        public int getNumTrees(int corner) {
+            return store.getNumTrees(index, corner);
         }
 
-        //Tree positions are invalid if they are located in the same area as a GraphicsItem
-        private boolean validTreePos(Vector2 pos, int corner) {
-            //Determine which cells in the tile to check for graphics items. Depends on the corner
-            int startingYPoint = corner == 0 || corner == 1 ? 3 :
-                    (int)(7f * (1f - TREE_CORNER_SIDE_SIZE / com.laben.islands.Screens.GameScreen.GAME_TABLE_HEIGHT));
-            int startingXPoint = corner == 0 || corner == 3 ? 0 :
-                    (int)(7f * (1f - TREE_CORNER_SIDE_SIZE / com.laben.islands.Screens.GameScreen.GAME_TABLE_WIDTH));
-            int endingYPoint = corner == 0 || corner == 1 ? (int)Math.ceil(
-                    TREE_CORNER_SIDE_SIZE * 7f / com.laben.islands.Screens.GameScreen.GAME_TABLE_HEIGHT + 3f) : graphicsItemsTable.length;
-            int endingXPoint = corner == 0 || corner == 3 ? (int)Math.ceil(
-                    TREE_CORNER_SIDE_SIZE * 7f / com.laben.islands.Screens.GameScreen.GAME_TABLE_WIDTH) : graphicsItemsTable[0].length;
-
-            int x = 0;
-            int y = 0; //These ints are the relative x and y values
-            for (int i = startingYPoint; i < endingYPoint; i++) {
-                for (int j = startingXPoint; j < endingXPoint; j++) {
-                    //If not empty
-                    if (graphicsItemsTable[i][j] != GraphicsItem.EMPTY ||
-                            vectorWithinGraphicsTableCell(pos, new GridPoint2(x, y))) {
-                        return false;
-                    }
-                    x++;
-                }
-                y++;
-            }
-            return true;
+        public float getTreeX(int corner, int tree) {
+            return store.getTreeX(index, corner, tree);
         }
 
-        private boolean vectorWithinGraphicsTableCell(Vector2 vector, GridPoint2 tableCell) {
-            float cellSideSize = GameScreen.GAME_TABLE_WIDTH / 7;
-            return (float)tableCell.x * cellSideSize <= vector.x && vector.x < (float)tableCell.x * cellSideSize &&
-                    (float)tableCell.y * cellSideSize <= vector.y && vector.y < (float)tableCell.x * cellSideSize;
+        public float getTreeY(int corner, int tree) {
+            return store.getTreeY(index, corner, tree);
         }
 
         public Set<Vector2> treeCoordinates(int corner) {
-            return treeCorners.get(corner);
+            Set<Vector2> coordinates = new HashSet<>();
+            for (int tree = 0; tree < getNumTrees(corner); tree++)
+                coordinates.add(new Vector2(getTreeX(corner, tree), getTreeY(corner, tree)));
+            return coordinates;
         }
     }
 }
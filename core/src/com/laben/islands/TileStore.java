@@ -0,0 +1,264 @@
+package com.laben.islands;
+
+import com.laben.islands.Screens.GameScreen;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.*;
+
+/** Holds the contents of every tile of an Island. What every tile needs to be known up front is kept as flat arrays
+ * indexed by x * height + y: the region number of each tile in regionIds and whether or not it holds the treasure in
+ * the treasure bitset. The purely decorative contents of a tile, its 7x7 graphics items and its trees, are only
+ * generated the first time they are read. They come from the tile's own random stream, so they are the same every
+ * time they are generated, and they are kept in a bounded cache from which the least recently used tiles are evicted.
+ * Start-up cost and memory therefore stay flat no matter how large the island is. A store loaded from an
+ * IslandSnapshot reads the contents of its tiles out of the snapshot's buffers instead of generating them.
+ */
+public class TileStore {
+
+    public static final int GRAPHICS_TABLE_SIDE = 7;
+    public static final int NUM_CORNERS = 4;
+    public static final int DEFAULT_CACHE_SIZE = 64; //Number of tiles whose contents are kept once generated
+    private static final int GRAPHICS_ITEMS_PER_TILE = GRAPHICS_TABLE_SIDE * GRAPHICS_TABLE_SIDE;
+    private static final double ROCK_CHANCE = .00204;
+    private static final double GRASS_CHANCE = .08163;
+    private static final Tile.GraphicsItem[] GRAPHICS_ITEMS = Tile.GraphicsItem.values();
+
+    private final int width;
+    private final int height;
+    private final int[] regionIds;
+    private final Region[] regionTable; //Region number -> region
+    private final BitSet treasure;
+    private final GenerationContext context;
+    private final int originX; //The island coordinates of the tile at index 0
+    private final int originY;
+    private final Map<Integer, TileContents> contentsCache; //Tile index -> contents, least recently used first
+    private ByteBuffer snapshotGraphicsItems; //The contents of every tile when loaded from a snapshot, otherwise null
+    private IntBuffer snapshotTreeOffsets;
+    private FloatBuffer snapshotTreePositions;
+    private int numContentsGenerated;
+
+    //Creates the store of an island given its numeric map, its regions and the context it is generated in
+    TileStore(int[][] numMap, Map<Integer, Region> regionIntegerConversionChart, GenerationContext context) {
+        this(numMap, regionIntegerConversionChart, context, 0, 0, DEFAULT_CACHE_SIZE);
+    }
+
+    /* Creates the store of part of an island whose first tile lies at the given island coordinates. Tiles still draw
+     * from the stream of their island coordinates, so they look the same no matter which store they end up in */
+    TileStore(int[][] numMap, Map<Integer, Region> regionIntegerConversionChart, GenerationContext context,
+              int originX, int originY, final int cacheSize) {
+        width = numMap.length;
+        height = numMap[0].length;
+        this.context = context;
+        this.originX = originX;
+        this.originY = originY;
+        regionIds = new int[width * height];
+        for (int x = 0; x < width; x++)
+            System.arraycopy(numMap[x], 0, regionIds, x * height, height);
+        int maxRegion = 0;
+        for (Integer region : regionIntegerConversionChart.keySet())
+            maxRegion = Math.max(maxRegion, region);
+        regionTable = new Region[maxRegion + 1];
+        for (Map.Entry<Integer, Region> entry : regionIntegerConversionChart.entrySet())
+            regionTable[entry.getKey()] = entry.getValue();
+        treasure = new BitSet(width * height);
+        contentsCache = new LinkedHashMap<Integer, TileContents>(cacheSize * 4 / 3 + 1, .75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, TileContents> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /* Creates the store of an island loaded from a snapshot. The buffers hold the graphics items of every tile, the
+     * offset of the first tree of every corner of every tile followed by the total number of trees, and the x, y
+     * pairs of every tree, all in tile index order. They are only read from when a tile's contents are needed */
+    TileStore(int[][] numMap, Map<Integer, Region> regionIntegerConversionChart, GenerationContext context,
+              ByteBuffer graphicsItems, IntBuffer treeOffsets, FloatBuffer treePositions) {
+        this(numMap, regionIntegerConversionChart, context);
+        snapshotGraphicsItems = graphicsItems;
+        snapshotTreeOffsets = treeOffsets;
+        snapshotTreePositions = treePositions;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int indexOf(int x, int y) {
+        return x * height + y;
+    }
+
+    public int getRegionId(int index) {
+        return regionIds[index];
+    }
+
+    public Region getRegion(int index) {
+        return regionTable[regionIds[index]];
+    }
+
+    public Tile.GraphicsItem getGraphicsItem(int index, int row, int column) {
+        return GRAPHICS_ITEMS[contentsOf(index).graphicsItems[row * GRAPHICS_TABLE_SIDE + column]];
+    }
+
+    public int getNumTrees(int index, int corner) {
+        int[] treeOffsets = contentsOf(index).treeOffsets;
+        return treeOffsets[corner + 1] - treeOffsets[corner];
+    }
+
+    public float getTreeX(int index, int corner, int tree) {
+        TileContents contents = contentsOf(index);
+        return contents.treePositions[(contents.treeOffsets[corner] + tree) * 2];
+    }
+
+    public float getTreeY(int index, int corner, int tree) {
+        TileContents contents = contentsOf(index);
+        return contents.treePositions[(contents.treeOffsets[corner] + tree) * 2 + 1];
+    }
+
+    public boolean hasTreasure(int index) {
+        return treasure.get(index);
+    }
+
+    public void setHasTreasure(int index, boolean hasTreasure) {
+        treasure.set(index, hasTreasure);
+    }
+
+    //The number of times the contents of a tile had to be generated, including regenerations after eviction
+    public int getNumContentsGenerated() {
+        return numContentsGenerated;
+    }
+
+    //The number of bytes taken up by the arrays of this store, including the tile contents currently cached
+    public long getSizeInBytes() {
+        long size = 4L * regionIds.length + 4L * regionTable.length + treasure.size() / 8;
+        for (TileContents contents : contentsCache.values()) {
+            size += contents.graphicsItems.length + 4L * contents.treeOffsets.length +
+                    4L * contents.treePositions.length;
+        }
+        return size;
+    }
+
+    //Returns the contents of the tile at the given index, generating them if they are not cached
+    private TileContents contentsOf(int index) {
+        TileContents contents = contentsCache.get(index);
+        if (contents == null) {
+            if (snapshotGraphicsItems != null) {
+                contents = new TileContents(index, snapshotGraphicsItems, snapshotTreeOffsets, snapshotTreePositions);
+            } else {
+                int x = originX + index / height;
+                int y = originY + index % height;
+                contents = new TileContents(getRegion(index).getTerrain(), context.randomForTile(x, y));
+                numContentsGenerated++;
+            }
+            contentsCache.put(index, contents);
+        }
+        return contents;
+    }
+
+    /* The decorative contents of a single tile: its graphics items as ordinals in [y][x] order and its trees as x, y
+     * pairs. The trees of a corner lie between two consecutive entries of treeOffsets */
+    private static class TileContents {
+        private final byte[] graphicsItems;
+        private final int[] treeOffsets;
+        private float[] treePositions;
+
+        TileContents(Terrain terrain, SplittableRandom random) {
+            graphicsItems = new byte[GRAPHICS_ITEMS_PER_TILE];
+            treeOffsets = new int[NUM_CORNERS + 1];
+            treePositions = new float[NUM_CORNERS * 4];
+            generateGraphicsItems(random);
+            generateTrees(terrain, random);
+        }
+
+        //Reads the contents of the tile at the given index out of the buffers of a snapshot
+        TileContents(int index, ByteBuffer graphicsItems, IntBuffer treeOffsets, FloatBuffer treePositions) {
+            this.graphicsItems = new byte[GRAPHICS_ITEMS_PER_TILE];
+            for (int i = 0; i < GRAPHICS_ITEMS_PER_TILE; i++)
+                this.graphicsItems[i] = graphicsItems.get(index * GRAPHICS_ITEMS_PER_TILE + i);
+            this.treeOffsets = new int[NUM_CORNERS + 1];
+            int firstTree = treeOffsets.get(index * NUM_CORNERS);
+            for (int corner = 0; corner <= NUM_CORNERS; corner++)
+                this.treeOffsets[corner] = treeOffsets.get(index * NUM_CORNERS + corner) - firstTree;
+            this.treePositions = new float[this.treeOffsets[NUM_CORNERS] * 2];
+            for (int i = 0; i < this.treePositions.length; i++)
+                this.treePositions[i] = treePositions.get(firstTree * 2 + i);
+        }
+
+        //Randomly fills the graphics items of the tile
+        private void generateGraphicsItems(SplittableRandom random) {
+            for (int i = 0; i < GRAPHICS_ITEMS_PER_TILE; i++) {
+                double p = random.nextDouble();
+                Tile.GraphicsItem item;
+                if (p < ROCK_CHANCE)
+                    item = Tile.GraphicsItem.ROCK;
+                else if (p < GRASS_CHANCE + ROCK_CHANCE)
+                    item = Tile.GraphicsItem.GRASS;
+                else item = Tile.GraphicsItem.EMPTY;
+                graphicsItems[i] = (byte)item.ordinal();
+            }
+        }
+
+        //Generates trees 1 corner at a time
+        private void generateTrees(Terrain terrain, SplittableRandom random) {
+            int numTrees = 0;
+            for (int corner = 0; corner < NUM_CORNERS; corner++) {
+                treeOffsets[corner] = numTrees;
+                int cornerTrees = (int) Math.round(terrain.getTreesPerCorner() +
+                        GenerationContext.nextGaussian(random) * terrain.getTreesPerCorner() * .3);
+                for (int i = 0; i < cornerTrees; i++) {
+                    float treeX = (float)random.nextDouble() * Tile.TREE_CORNER_SIDE_SIZE;
+                    float treeY = (float)random.nextDouble() * Tile.TREE_CORNER_SIDE_SIZE;
+                    if (validTreePos(treeX, treeY, corner)) {
+                        if (treePositions.length < (numTrees + 1) * 2)
+                            treePositions = Arrays.copyOf(treePositions, treePositions.length * 2);
+                        treePositions[numTrees * 2] = treeX;
+                        treePositions[numTrees * 2 + 1] = treeY;
+                        numTrees++;
+                    }
+                }
+            }
+            treeOffsets[NUM_CORNERS] = numTrees;
+            treePositions = Arrays.copyOf(treePositions, numTrees * 2);
+        }
+
+        //Tree positions are invalid if they are located in the same area as a GraphicsItem
+        private boolean validTreePos(float treeX, float treeY, int corner) {
+            //Determine which cells in the tile to check for graphics items. Depends on the corner
+            int startingYPoint = corner == 0 || corner == 1 ? 3 :
+                    (int)(7f * (1f - Tile.TREE_CORNER_SIDE_SIZE / GameScreen.GAME_TABLE_HEIGHT));
+            int startingXPoint = corner == 0 || corner == 3 ? 0 :
+                    (int)(7f * (1f - Tile.TREE_CORNER_SIDE_SIZE / GameScreen.GAME_TABLE_WIDTH));
+            int endingYPoint = corner == 0 || corner == 1 ? (int)Math.ceil(
+                    Tile.TREE_CORNER_SIDE_SIZE * 7f / GameScreen.GAME_TABLE_HEIGHT + 3f) : GRAPHICS_TABLE_SIDE;
+            int endingXPoint = corner == 0 || corner == 3 ? (int)Math.ceil(
+                    Tile.TREE_CORNER_SIDE_SIZE * 7f / GameScreen.GAME_TABLE_WIDTH) : GRAPHICS_TABLE_SIDE;
+
+            int x = 0;
+            int y = 0; //These ints are the relative x and y values
+            for (int i = startingYPoint; i < endingYPoint; i++) {
+                for (int j = startingXPoint; j < endingXPoint; j++) {
+                    //If not empty
+                    if (graphicsItems[i * GRAPHICS_TABLE_SIDE + j] != Tile.GraphicsItem.EMPTY.ordinal() ||
+                            positionWithinGraphicsTableCell(treeX, treeY, x, y)) {
+                        return false;
+                    }
+                    x++;
+                }
+                y++;
+            }
+            return true;
+        }
+
+        private static boolean positionWithinGraphicsTableCell(float posX, float posY, int cellX, int cellY) {
+            float cellSideSize = GameScreen.GAME_TABLE_WIDTH / 7;
+            return (float)cellX * cellSideSize <= posX && posX < (float)cellX * cellSideSize &&
+                    (float)cellY * cellSideSize <= posY && posY < (float)cellX * cellSideSize;
+        }
+    }
+}
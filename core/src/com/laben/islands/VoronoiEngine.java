@@ -0,0 +1,27 @@
+package com.laben.islands;
+
+import java.util.SplittableRandom;
+
+/** Labels every cell of a grid with the number of its closest Voronoi point (site). Labels are written into a flat
+ * buffer in which cell (x, y) is stored at index x * height + y, the same column order as the numeric island maps.
+ * Sites are numbered from 1, so site i in the given arrays is written as the label i + 1. When a cell is equally
+ * close to several sites the winner is decided randomly.
+ */
+public interface VoronoiEngine {
+
+    //Compares the cell against every site. Exact, but O(width * height * sites)
+    VoronoiEngine BRUTE_FORCE = new BruteForceVoronoiEngine();
+    //Jump flooding over the label buffer. O(width * height * log(side)) regardless of the number of sites
+    VoronoiEngine JUMP_FLOOD = new JumpFloodVoronoiEngine();
+
+    //Above this many distance checks brute force becomes slower than flooding the grid
+    long BRUTE_FORCE_WORK_LIMIT = 1L << 18;
+
+    //Fills labels (length width * height) given the coordinates of each site
+    void label(int width, int height, int[] siteX, int[] siteY, int[] labels, SplittableRandom random);
+
+    //Returns the engine that is expected to be fastest for a grid of the given size and number of sites
+    static VoronoiEngine forGrid(int width, int height, int numSites) {
+        return (long)width * height * numSites <= BRUTE_FORCE_WORK_LIMIT ? BRUTE_FORCE : JUMP_FLOOD;
+    }
+}
@@ -1,9 +1,9 @@
 package com.laben.islands.items;
 
 import com.badlogic.gdx.math.GridPoint2;
+import com.laben.islands.Island;
 import com.laben.islands.IslandGame;
-import com.laben.islands.Region;
-import com.laben.islands.Tile;
+import com.laben.islands.RegionIndex;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -214,11 +214,13 @@ public class Item implements Comparable<Item>{
         @Override
         public void execute(IslandGame game) {
             GridPoint2 currentPos = game.getCurrentTile().getCoordinates();
-            Random random = new Random();
+            SplittableRandom random = game.getCurrentIsland().getRandom();
+            //Warp anywhere on the map, which is the entire island unless the island is chunked
+            Island.IterableRegionMap regionMap = game.getCurrentIsland().getIterableRegionMap();
             GridPoint2 newPosition;
             do {
-                newPosition = new GridPoint2(random.nextInt(game.getCurrentIsland().getWidth()),
-                        random.nextInt(game.getCurrentIsland().getHeight()));
+                newPosition = new GridPoint2(regionMap.getOriginX() + random.nextInt(regionMap.getNumColumns()),
+                        regionMap.getOriginY() + random.nextInt(regionMap.getNumRows()));
             } while(newPosition == currentPos);
 
             game.setCurrentTile(game.getCurrentIsland().tileAtPoint(newPosition));
@@ -235,18 +237,23 @@ public class Item implements Comparable<Item>{
 
         @Override
         public void execute(IslandGame game) {
-            Region currentRegion = game.getCurrentTile().getRegion();
-            //Create list of all tiles in region
-            List<Tile> tilesInRegion = new ArrayList<>(40);
-            Iterator<Tile> iterator= game.getCurrentIsland().getIterableRegionMap().tileIterator();
-            while (iterator.hasNext()) {
-                Tile currentTile = iterator.next();
-                if (currentTile.getRegion().equals(currentRegion))
-                    tilesInRegion.add(currentTile);
+            Island.IterableRegionMap regionMap = game.getCurrentIsland().getIterableRegionMap();
+            RegionIndex regionIndex = regionMap.getRegionIndex();
+            int region = regionMap.getRegionNumber(game.getCurrentTile().getRegion());
+            GridPoint2 currentPos = game.getCurrentTile().getCoordinates();
+            int area = regionIndex.getArea(region);
+            //Pick any tile of the region except the current one
+            if (area > 1) {
+                int currentIndex = regionIndex.positionOf(region, currentPos.x - regionMap.getOriginX(),
+                        currentPos.y - regionMap.getOriginY());
+                SplittableRandom random = game.getCurrentIsland().getRandom();
+                int newIndex = random.nextInt(area - 1);
+                if (newIndex >= currentIndex)
+                    newIndex++;
+                game.setCurrentTile(game.getCurrentIsland().tileAtPoint(new GridPoint2(
+                        regionMap.getOriginX() + regionIndex.getTileX(region, newIndex),
+                        regionMap.getOriginY() + regionIndex.getTileY(region, newIndex))));
             }
-            tilesInRegion.remove(game.getCurrentTile());
-            if (tilesInRegion.size() > 0)
-                game.setCurrentTile(tilesInRegion.get(new Random().nextInt(tilesInRegion.size())));
             game.displayTextBox("Warped");
         }
 
@@ -0,0 +1,178 @@
+package com.laben.islands.desktop;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessFiles;
+import com.badlogic.gdx.math.GridPoint2;
+import com.laben.islands.GenerationContext;
+import com.laben.islands.Island;
+import com.laben.islands.Region;
+import com.laben.islands.RegionIndex;
+import com.laben.islands.Terrain;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+
+/** Generates islands in bulk without opening a window and writes statistics about every island, one line each, as CSV
+ * or JSON lines. Islands are generated in parallel on every core but written in order, and every island's seed is
+ * derived from the base seed, its level and its index, so the same arguments always produce the same output apart from
+ * the generation times. Must be run from the assets folder, which the generate task does.
+ *
+ * Arguments: [--levels from-to] [--count islands per level] [--seed base seed] [--threads n] [--format csv|jsonl]
+ *            [--out file]
+ */
+public class GeneratorLauncher {
+
+	private static final List<Terrain> TERRAIN_ORDER = new ArrayList<>(Terrain.TERRAIN_SET);
+
+	static {
+		TERRAIN_ORDER.sort(Comparator.comparing(Terrain::toString));
+	}
+
+	public static void main (String[] arg) throws Exception {
+		Map<String, String> options = parsedOptions(arg);
+		String[] levels = options.getOrDefault("levels", "1-20").split("-");
+		int fromLevel = Integer.parseInt(levels[0]);
+		int toLevel = Integer.parseInt(levels[levels.length - 1]);
+		int count = Integer.parseInt(options.getOrDefault("count", "10"));
+		long seed = Long.parseLong(options.getOrDefault("seed", "0"));
+		int threads = Integer.parseInt(options.getOrDefault("threads",
+				Integer.toString(Runtime.getRuntime().availableProcessors())));
+		boolean json = options.getOrDefault("format", "csv").equals("jsonl");
+		Gdx.files = new HeadlessFiles();
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		//Keep a bounded window of islands in flight so that lines are streamed out as soon as they are in order
+		Deque<Future<IslandStats>> inFlight = new ArrayDeque<>();
+		int window = threads * 4;
+		try (Writer writer = options.containsKey("out") ?
+				new OutputStreamWriter(new FileOutputStream(options.get("out")), StandardCharsets.UTF_8) :
+				new OutputStreamWriter(System.out, StandardCharsets.UTF_8)) {
+			PrintWriter out = new PrintWriter(new BufferedWriter(writer));
+			if (!json)
+				out.println(csvHeader());
+			for (int level = fromLevel; level <= toLevel; level++) {
+				for (int index = 0; index < count; index++) {
+					final int islandLevel = level;
+					final long islandSeed = GenerationContext.seedForPoint(seed, level, index);
+					final int islandIndex = index;
+					inFlight.add(executor.submit(() -> generatedStats(islandLevel, islandIndex, islandSeed)));
+					if (inFlight.size() >= window)
+						write(out, inFlight.poll().get(), json);
+				}
+			}
+			while (!inFlight.isEmpty())
+				write(out, inFlight.poll().get(), json);
+			out.flush();
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	//Generates a single island and measures it
+	private static IslandStats generatedStats(int level, int index, long seed) {
+		long start = System.nanoTime();
+		Island island = new Island(seed, level);
+		long time = System.nanoTime() - start;
+		return new IslandStats(level, index, island, time);
+	}
+
+	private static void write(PrintWriter out, IslandStats stats, boolean json) {
+		out.println(json ? stats.toJson() : stats.toCsv());
+	}
+
+	private static String csvHeader() {
+		StringBuilder header = new StringBuilder("level,index,seed,width,height,generation_ms,repairs,fragments,regions," +
+				"min_region,max_region,mean_region");
+		for (Terrain terrain : TERRAIN_ORDER)
+			header.append(",").append(terrain.toString().toLowerCase()).append("_tiles");
+		return header.append(",treasure_distance,region_sizes").toString();
+	}
+
+	private static Map<String, String> parsedOptions(String[] arg) {
+		Map<String, String> options = new HashMap<>();
+		for (int i = 0; i < arg.length; i++) {
+			if (!arg[i].startsWith("--") || i + 1 >= arg.length)
+				throw new IllegalArgumentException("Expected --option value, got: " + arg[i]);
+			options.put(arg[i].substring(2), arg[++i]);
+		}
+		return options;
+	}
+
+	/* The statistics of a single island */
+	private static class IslandStats {
+		private final int level;
+		private final int index;
+		private final long seed;
+		private final int width;
+		private final int height;
+		private final double generationMillis;
+		private final int repairs;
+		private final int fragments; //Disconnected region pieces merged into a neighbour
+		private final int[] regionSizes; //Largest first
+		private final int[] terrainTiles; //Number of tiles of every terrain, in TERRAIN_ORDER
+		private final int treasureDistance; //Steps from the starting tile to the treasure
+
+		IslandStats(int level, int index, Island island, long generationNanos) {
+			this.level = level;
+			this.index = index;
+			seed = island.getSeed();
+			width = island.getWidth();
+			height = island.getHeight();
+			generationMillis = generationNanos / 1e6;
+			repairs = island.getGenerationRepairs();
+			fragments = island.getGenerationFragments();
+			RegionIndex regionIndex = island.getIterableRegionMap().getRegionIndex();
+			Map<Integer, Region> regionIntegerConversionChart = island.getIterableRegionMap()
+					.getRegionIntegerConversionChart();
+			List<Integer> sizes = new ArrayList<>();
+			terrainTiles = new int[TERRAIN_ORDER.size()];
+			for (Map.Entry<Integer, Region> entry : regionIntegerConversionChart.entrySet()) {
+				int area = regionIndex.getArea(entry.getKey());
+				if (area > 0) {
+					sizes.add(area);
+					terrainTiles[TERRAIN_ORDER.indexOf(entry.getValue().getTerrain())] += area;
+				}
+			}
+			regionSizes = sizes.stream().sorted(Comparator.reverseOrder()).mapToInt(Integer::intValue).toArray();
+			GridPoint2 start = island.getStartingLocation();
+			GridPoint2 treasure = island.getTreasureLocation();
+			treasureDistance = Math.abs(start.x - treasure.x) + Math.abs(start.y - treasure.y);
+		}
+
+		double meanRegionSize() {
+			return (double)(width * height) / regionSizes.length;
+		}
+
+		String toCsv() {
+			StringBuilder line = new StringBuilder();
+			line.append(level).append(',').append(index).append(',').append(seed).append(',').append(width)
+					.append(',').append(height).append(',').append(String.format(Locale.ROOT, "%.3f", generationMillis))
+					.append(',').append(repairs).append(',').append(fragments).append(',').append(regionSizes.length)
+					.append(',').append(regionSizes[regionSizes.length - 1]).append(',').append(regionSizes[0]).append(',')
+					.append(String.format(Locale.ROOT, "%.2f", meanRegionSize()));
+			for (int tiles : terrainTiles)
+				line.append(',').append(tiles);
+			line.append(',').append(treasureDistance).append(',');
+			for (int i = 0; i < regionSizes.length; i++)
+				line.append(i == 0 ? "" : ";").append(regionSizes[i]);
+			return line.toString();
+		}
+
+		String toJson() {
+			StringBuilder line = new StringBuilder("{");
+			line.append("\"level\":").append(level).append(",\"index\":").append(index).append(",\"seed\":")
+					.append(seed).append(",\"width\":").append(width).append(",\"height\":").append(height)
+					.append(",\"generation_ms\":").append(String.format(Locale.ROOT, "%.3f", generationMillis))
+					.append(",\"repairs\":").append(repairs).append(",\"fragments\":").append(fragments)
+					.append(",\"region_sizes\":")
+					.append(Arrays.toString(regionSizes).replace(" ", "")).append(",\"terrain_tiles\":{");
+			for (int i = 0; i < TERRAIN_ORDER.size(); i++) {
+				line.append(i == 0 ? "" : ",").append('"').append(TERRAIN_ORDER.get(i)).append("\":")
+						.append(terrainTiles[i]);
+			}
+			return line.append("},\"treasure_distance\":").append(treasureDistance).append('}').toString();
+		}
+	}
+}